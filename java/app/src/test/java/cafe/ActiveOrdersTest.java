@@ -0,0 +1,208 @@
+/*
+ * Template JAVA User Interface
+ * =============================
+ *
+ * Database Management Systems
+ * Department of Computer Science &amp; Engineering
+ * University of California - Riverside
+ *
+ * Target DBMS: 'Postgres'
+ *
+ */
+
+package cafe;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class ActiveOrdersTest {
+
+   private static final LocalDateTime NOW = LocalDateTime.now();
+
+   /**
+    * Answers the active order query with the rows given, after running
+    * whatever the test wants to happen while the query is on its way.
+    */
+   private static final class FakeCafe extends Cafe {
+      final List<Object[]> rows = new ArrayList<Object[]>();
+      Runnable duringRead = () -> { };
+      SQLException failure = null;
+
+      FakeCafe () {
+         super((ConnectionPool) null);
+      }
+
+      // one row of the Orders and ItemStatus join; itemName null for an order without items
+      FakeCafe row (int orderid, LocalDateTime received, String itemName, String status) {
+         rows.add(new Object[] { orderid, received, itemName, status });
+         return this;
+      }
+
+      @Override
+      public <T> List<T> executeQueryAndMap (String query, RowMapper<T> mapper, Object... params) throws SQLException {
+         duringRead.run();
+         if (failure != null)
+            throw failure;
+         List<T> mapped = new ArrayList<T>();
+         for (Object[] row : rows)
+            if (params.length == 0 || row[0].equals(params[0]))
+               mapped.add(mapper.map(resultSet(row)));
+         return mapped;
+      }
+   }//end FakeCafe
+
+   // a result set positioned on one row of the active order query
+   private static ResultSet resultSet (Object[] row) {
+      return (ResultSet) Proxy.newProxyInstance(ActiveOrdersTest.class.getClassLoader(), new Class<?>[] { ResultSet.class },
+         (self, method, args) -> {
+            switch (method.getName()) {
+               case "getInt": case "getObject": case "getString": return row[(Integer) args[0] - 1];
+               default: throw new UnsupportedOperationException("ResultSet." + method.getName());
+            }
+         });
+   }//end resultSet
+
+   private static ActiveOrder order (int orderid, LocalDateTime received, String... itemsAndStatuses) {
+      Map<String, String> items = new LinkedHashMap<String, String>();
+      for (int i = 0; i < itemsAndStatuses.length; i += 2)
+         items.put(itemsAndStatuses[i], itemsAndStatuses[i + 1]);
+      return new ActiveOrder(orderid, received, items);
+   }//end order
+
+   private static List<Integer> ids (List<ActiveOrder> orders) {
+      List<Integer> ids = new ArrayList<Integer>();
+      for (ActiveOrder order : orders)
+         ids.add(order.getOrderid());
+      return ids;
+   }//end ids
+
+   @Test
+   void reloadKeepsTheChangesMadeWhileItRead () throws SQLException {
+      ActiveOrders active = new ActiveOrders();
+      // the read saw orders 1 and 2 as they were before these changes
+      FakeCafe esql = new FakeCafe()
+         .row(1, NOW.minusMinutes(30), "Latte", "Hasn't Started")
+         .row(2, NOW.minusMinutes(20), "Mocha", "Hasn't Started");
+      esql.duringRead = () -> {
+         active.itemStatus(1, "Latte", "Started");
+         active.remove(2);
+         active.placed(order(3, NOW.minusMinutes(1), "Tea", "Hasn't Started"));
+      };
+
+      active.reload(esql);
+
+      assertEquals("Started", active.find(1).getItems().get("Latte"));
+      assertNull(active.find(2));
+      assertNotNull(active.find(3));
+      assertEquals(List.of(1, 3), ids(active.inArrivalOrder()));
+   }//end reloadKeepsTheChangesMadeWhileItRead
+
+   @Test
+   void changesAfterAReloadAreNotReplayedByTheNext () throws SQLException {
+      ActiveOrders active = new ActiveOrders();
+      FakeCafe esql = new FakeCafe().row(1, NOW.minusMinutes(30), "Latte", "Hasn't Started");
+      active.reload(esql);
+      active.placed(order(5, NOW.minusMinutes(5), "Tea", "Hasn't Started"));
+      assertNotNull(active.find(5));
+
+      // order 5 was paid meanwhile, so the tables no longer have it
+      active.reload(esql);
+
+      assertNull(active.find(5));
+      assertEquals(1, active.size());
+   }//end changesAfterAReloadAreNotReplayedByTheNext
+
+   @Test
+   void aFailedReloadKeepsTheOldOrdersAndForgetsItsChanges () throws SQLException {
+      ActiveOrders active = new ActiveOrders();
+      FakeCafe esql = new FakeCafe().row(1, NOW.minusMinutes(30), "Latte", "Hasn't Started");
+      active.reload(esql);
+
+      esql.failure = new SQLException("connection lost");
+      esql.duringRead = () -> active.placed(order(5, NOW.minusMinutes(5), "Tea", "Hasn't Started"));
+      SQLException e = assertThrows(SQLException.class, () -> active.reload(esql));
+      assertSame(esql.failure, e);
+      // the change still reached the orders in use
+      assertNotNull(active.find(1));
+      assertNotNull(active.find(5));
+
+      esql.failure = null;
+      esql.duringRead = () -> { };
+      active.reload(esql);
+      assertNull(active.find(5));
+   }//end aFailedReloadKeepsTheOldOrdersAndForgetsItsChanges
+
+   @Test
+   void listsUnfinishedOrdersInArrivalOrder () throws SQLException {
+      ActiveOrders active = new ActiveOrders();
+      LocalDateTime same = NOW.minusMinutes(10);
+      active.reload(new FakeCafe()
+         .row(4, same, "Latte", "Started")
+         .row(7, NOW.minusMinutes(40), "Mocha", ActiveOrder.FINISHED)
+         .row(8, NOW.minusMinutes(50), null, null)
+         .row(9, same, "Tea", "Hasn't Started")
+         .row(9, same, "Scone", ActiveOrder.FINISHED)
+         .row(12, NOW.minusMinutes(20), "Tea", ActiveOrder.FINISHED)
+         .row(12, NOW.minusMinutes(20), "Scone", "Started"));
+
+      // 7 is finished; 8 has no items yet, so it is not
+      assertEquals(List.of(8, 12, 4, 9), ids(active.inArrivalOrder()));
+      assertNull(active.find(7));
+      assertNotNull(active.find(8));
+      assertEquals(2, active.find(9).getItems().size());
+
+      active.itemStatus(12, "Scone", ActiveOrder.FINISHED);
+      assertNull(active.find(12));
+      // its time is still known, so its payment goes to one partition
+      assertEquals(NOW.minusMinutes(20), active.received(12));
+      assertNull(active.received(99));
+   }//end listsUnfinishedOrdersInArrivalOrder
+
+   @Test
+   void expiredOrdersDropOut () throws SQLException {
+      ActiveOrders active = new ActiveOrders();
+      active.reload(new FakeCafe()
+         .row(1, NOW.minusHours(ActiveOrders.ACTIVE_HOURS).minusMinutes(1), "Latte", "Started")
+         .row(2, NOW.minusMinutes(1), "Latte", "Started"));
+
+      assertNull(active.find(1));
+      assertEquals(List.of(2), ids(active.inArrivalOrder()));
+      assertEquals(1, active.size());
+   }//end expiredOrdersDropOut
+
+   @Test
+   void refreshReplacesOneOrderFromTheTables () throws SQLException {
+      ActiveOrders active = new ActiveOrders();
+      FakeCafe esql = new FakeCafe().row(1, NOW.minusMinutes(30), "Latte", "Hasn't Started");
+      active.reload(esql);
+      assertFalse(active.placed(order(1, NOW.minusMinutes(30), "Mocha", "Started")));
+
+      esql.rows.clear();
+      esql.row(1, NOW.minusMinutes(30), "Latte", "Started").row(2, NOW.minusMinutes(3), "Tea", "Started");
+      active.refresh(esql, 1);
+      assertEquals("Started", active.find(1).getItems().get("Latte"));
+      assertNull(active.find(2));
+
+      esql.rows.clear();
+      active.refresh(esql, 1);
+      assertNull(active.find(1));
+      assertTrue(active.inArrivalOrder().isEmpty());
+   }//end refreshReplacesOneOrderFromTheTables
+
+}//end ActiveOrdersTest
@@ -0,0 +1,212 @@
+/*
+ * Template JAVA User Interface
+ * =============================
+ *
+ * Database Management Systems
+ * Department of Computer Science &amp; Engineering
+ * University of California - Riverside
+ *
+ * Target DBMS: 'Postgres'
+ *
+ */
+
+package cafe;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class BulkUpdatesTest {
+
+   private static final LocalDateTime NOW = LocalDateTime.now().withNano(0);
+
+   /**
+    * Keeps the statements BulkUpdates sends, with their durability and
+    * parameters, and answers an UPDATE ... RETURNING with one row for each
+    * orderid of its array parameter.
+    */
+   private static final class FakeCafe extends Cafe {
+      final List<String> log = new ArrayList<String>();
+      ActiveOrders active = null;
+      DurabilityPolicy policy;
+      String sql;
+      Object[] params;
+      SQLException failure = null;
+
+      FakeCafe () {
+         super((ConnectionPool) null);
+      }
+
+      @Override
+      public ActiveOrders getActiveOrders () {
+         return active;
+      }
+
+      @Override
+      public int executeUpdate (DurabilityPolicy policy, String sql, Object... params) throws SQLException {
+         log.add("update");
+         this.policy = policy;
+         this.sql = sql;
+         this.params = params;
+         return 7;
+      }
+
+      @Override
+      public void beginTransaction (DurabilityPolicy policy) {
+         log.add("begin");
+         this.policy = policy;
+      }
+
+      @Override
+      public void commitTransaction () {
+         log.add("commit");
+      }
+
+      @Override
+      public void rollbackTransaction () {
+         log.add("rollback");
+      }
+
+      @Override
+      public <T> List<T> executeQueryAndMap (String query, RowMapper<T> mapper, Object... params) throws SQLException {
+         // the reload after orders are marked unpaid finds none active
+         if (query.startsWith("SELECT"))
+            return new ArrayList<T>();
+         log.add("query");
+         this.sql = query;
+         this.params = params;
+         if (failure != null)
+            throw failure;
+         List<T> mapped = new ArrayList<T>();
+         for (int orderid : (int[]) params[1])
+            mapped.add(mapper.map(resultSet(orderid, "Latte")));
+         return mapped;
+      }
+   }//end FakeCafe
+
+   // a result set positioned on one row RETURNING orderid, itemName
+   private static ResultSet resultSet (int orderid, String itemName) {
+      return (ResultSet) Proxy.newProxyInstance(BulkUpdatesTest.class.getClassLoader(), new Class<?>[] { ResultSet.class },
+         (self, method, args) -> {
+            switch (method.getName() + args[0]) {
+               case "getInt1": return orderid;
+               case "getString2": return itemName;
+               default: throw new UnsupportedOperationException("ResultSet." + method.getName());
+            }
+         });
+   }//end resultSet
+
+   // the active orders 1 to 3, received an hour, half an hour and a minute ago
+   private static ActiveOrders active () {
+      ActiveOrders active = new ActiveOrders();
+      active.placed(new ActiveOrder(1, NOW.minusHours(1), Map.of("Latte", "Hasn't Started")));
+      active.placed(new ActiveOrder(2, NOW.minusMinutes(30), Map.of("Latte", "Hasn't Started")));
+      active.placed(new ActiveOrder(3, NOW.minusMinutes(1), Map.of("Latte", "Hasn't Started")));
+      return active;
+   }//end active
+
+   // every ? of the statement has a parameter
+   private static void assertBindsAll (FakeCafe esql) {
+      assertEquals(esql.sql.chars().filter(c -> c == '?').count(), esql.params.length, esql.sql);
+   }//end assertBindsAll
+
+   @Test
+   void bindsTheStatusAroundTheConditionOfAStatusUpdate () throws SQLException {
+      FakeCafe esql = new FakeCafe();
+      LocalDateTime from = NOW.minusDays(1);
+
+      assertEquals(7, BulkUpdates.markItemsBefore(esql, from, NOW, "Finished"));
+
+      assertSame(DurabilityPolicy.ITEM_STATUS, esql.policy);
+      assertEquals("UPDATE ItemStatus SET status = ?, lastUpdated = statement_timestamp() "
+                   + "WHERE orderReceived >= ? AND orderReceived < ? AND status IS DISTINCT FROM ?", esql.sql);
+      assertArrayEquals(new Object[] { "Finished", from, NOW, "Finished" }, esql.params);
+   }//end bindsTheStatusAroundTheConditionOfAStatusUpdate
+
+   @Test
+   void bindsPaidAroundTheConditionOfAPaymentUpdate () throws SQLException {
+      FakeCafe esql = new FakeCafe();
+
+      BulkUpdates.markPaidBefore(esql, null, NOW, true);
+
+      assertSame(DurabilityPolicy.PAYMENT, esql.policy);
+      assertEquals("UPDATE Orders SET paid = ? WHERE timeStampRecieved < ? AND paid IS DISTINCT FROM ?", esql.sql);
+      assertArrayEquals(new Object[] { true, NOW, true }, esql.params);
+   }//end bindsPaidAroundTheConditionOfAPaymentUpdate
+
+   @Test
+   void looksUpTheTimesOfOrdersNobodyKnows () throws SQLException {
+      FakeCafe esql = new FakeCafe();
+      int[] orderids = { 3, 1 };
+
+      BulkUpdates.markItemsOfOrders(esql, orderids, "Started");
+
+      assertBindsAll(esql);
+      assertArrayEquals(new Object[] { "Started", orderids, orderids, orderids, "Started" }, esql.params);
+
+      // one of them is not active, so the times are looked up again
+      esql.active = active();
+      BulkUpdates.markPaid(esql, new int[] { 2, 9 }, false);
+      assertBindsAll(esql);
+      assertEquals(5, esql.params.length);
+      assertEquals(false, esql.params[0]);
+      assertArrayEquals((int[]) esql.params[1], (int[]) esql.params[2]);
+   }//end looksUpTheTimesOfOrdersNobodyKnows
+
+   @Test
+   void boundsActiveOrdersByTheirEarliestAndLatestTime () throws SQLException {
+      FakeCafe esql = new FakeCafe();
+      esql.active = active();
+      int[] orderids = { 3, 1, 2 };
+
+      assertEquals(3, BulkUpdates.markItemsOfOrders(esql, orderids, "Finished"));
+
+      assertEquals(List.of("begin", "query", "commit"), esql.log);
+      assertSame(DurabilityPolicy.ITEM_STATUS, esql.policy);
+      assertBindsAll(esql);
+      assertArrayEquals(new Object[] { "Finished", orderids, NOW.minusHours(1), NOW.minusMinutes(1), "Finished" }, esql.params);
+      // the changed items reached the active orders, which now drop them
+      assertNull(esql.active.find(1));
+      assertNull(esql.active.find(3));
+   }//end boundsActiveOrdersByTheirEarliestAndLatestTime
+
+   @Test
+   void paidOrdersLeaveTheActiveOrders () throws SQLException {
+      FakeCafe esql = new FakeCafe();
+      esql.active = active();
+
+      assertEquals(1, BulkUpdates.markPaid(esql, new int[] { 2 }, true));
+
+      assertSame(DurabilityPolicy.PAYMENT, esql.policy);
+      assertArrayEquals(new Object[] { true, new int[] { 2 }, NOW.minusMinutes(30), NOW.minusMinutes(30), true }, esql.params);
+      assertNull(esql.active.find(2));
+      assertNotNull(esql.active.find(1));
+   }//end paidOrdersLeaveTheActiveOrders
+
+   @Test
+   void aFailedUpdateRollsBack () {
+      FakeCafe esql = new FakeCafe();
+      esql.active = active();
+      esql.failure = new SQLException("deadlock detected");
+
+      SQLException e = assertThrows(SQLException.class, () -> BulkUpdates.markPaid(esql, new int[] { 1 }, true));
+
+      assertSame(esql.failure, e);
+      assertEquals(List.of("begin", "query", "rollback"), esql.log);
+      assertNotNull(esql.active.find(1));
+   }//end aFailedUpdateRollsBack
+
+}//end BulkUpdatesTest
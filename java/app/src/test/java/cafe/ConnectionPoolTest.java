@@ -0,0 +1,163 @@
+/*
+ * Template JAVA User Interface
+ * =============================
+ *
+ * Database Management Systems
+ * Department of Computer Science &amp; Engineering
+ * University of California - Riverside
+ *
+ * Target DBMS: 'Postgres'
+ *
+ */
+
+package cafe;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInfo;
+
+class ConnectionPoolTest {
+
+   private String _url;
+   private ConnectionPool _pool;
+
+   private ConnectionPool pool (TestInfo test, int minSize, int maxSize, long borrowTimeoutMillis) throws SQLException {
+      _url = FakeJdbc.url(test.getDisplayName());
+      _pool = new ConnectionPool(_url, minSize, maxSize, 60000L, borrowTimeoutMillis);
+      return _pool;
+   }//end pool
+
+   @AfterEach
+   void close () {
+      if (_pool != null)
+         _pool.close();
+   }//end close
+
+   @Test
+   void opensTheMinimumUpFront (TestInfo test) throws SQLException {
+      ConnectionPool pool = pool(test, 2, 4, 1000L);
+
+      assertEquals(2, FakeJdbc.opened(_url).size());
+      assertEquals(2, stat(pool, "open"));
+      assertEquals(2, stat(pool, "idle"));
+      assertEquals(2, stat(pool, "created"));
+   }//end opensTheMinimumUpFront
+
+   @Test
+   void reusesAReleasedConnection (TestInfo test) throws SQLException {
+      ConnectionPool pool = pool(test, 1, 4, 1000L);
+      Connection first = pool.borrow();
+      assertEquals(0, stat(pool, "idle"));
+      pool.release(first);
+      Connection second = pool.borrow();
+
+      assertSame(first, second);
+      assertEquals(1, FakeJdbc.opened(_url).size());
+      assertEquals(1, stat(pool, "open"));
+      assertEquals(2, pool.getBorrowCount());
+      pool.release(second);
+      assertEquals(1, stat(pool, "idle"));
+   }//end reusesAReleasedConnection
+
+   @Test
+   void opensUpToTheMaximumThenTimesOut (TestInfo test) throws SQLException {
+      ConnectionPool pool = pool(test, 0, 2, 50L);
+      Connection a = pool.borrow();
+      Connection b = pool.borrow();
+      assertEquals(2, stat(pool, "open"));
+
+      assertThrows(SQLException.class, pool::borrow);
+      assertEquals(1, pool.getTimeoutCount());
+      assertEquals(2, stat(pool, "open"));
+
+      // a returned connection is handed out again, not a third one
+      pool.release(a);
+      assertSame(a, pool.borrow());
+      assertEquals(2, FakeJdbc.opened(_url).size());
+      pool.release(b);
+   }//end opensUpToTheMaximumThenTimesOut
+
+   @Test
+   void destroysAClosedConnectionOnRelease (TestInfo test) throws SQLException {
+      ConnectionPool pool = pool(test, 0, 2, 1000L);
+      Connection broken = pool.borrow();
+      broken.close();
+      pool.release(broken);
+
+      assertEquals(0, stat(pool, "open"));
+      assertEquals(0, stat(pool, "idle"));
+      assertEquals(1, stat(pool, "destroyed"));
+      Connection next = pool.borrow();
+      assertNotSame(broken, next);
+      assertEquals(1, stat(pool, "open"));
+      pool.release(next);
+   }//end destroysAClosedConnectionOnRelease
+
+   @Test
+   void rollsBackAnOpenTransactionOnRelease (TestInfo test) throws SQLException {
+      ConnectionPool pool = pool(test, 0, 1, 1000L);
+      Connection conn = pool.borrow();
+      conn.setAutoCommit(false);
+      pool.release(conn);
+
+      FakeJdbc.FakeConnection fake = FakeJdbc.opened(_url).get(0);
+      assertEquals(1, fake.rollbacks);
+      assertTrue(fake.autoCommit);
+      assertEquals(1, stat(pool, "idle"));
+   }//end rollsBackAnOpenTransactionOnRelease
+
+   @Test
+   void givesThePermitBackWhenOpeningFails (TestInfo test) throws SQLException {
+      ConnectionPool pool = pool(test, 0, 1, 50L);
+      FakeJdbc.failing(_url, true);
+      try {
+         // each attempt fails on the connection, not on a pool with no permits left
+         assertThrows(SQLException.class, pool::borrow);
+         assertThrows(SQLException.class, pool::borrow);
+         assertEquals(0, pool.getTimeoutCount());
+         assertEquals(0, stat(pool, "open"));
+      }finally {
+         FakeJdbc.failing(_url, false);
+      }
+      pool.release(pool.borrow());
+      assertEquals(1, stat(pool, "open"));
+   }//end givesThePermitBackWhenOpeningFails
+
+   @Test
+   void closeClosesIdleConnectionsAndLaterReleases (TestInfo test) throws SQLException {
+      ConnectionPool pool = pool(test, 2, 2, 1000L);
+      Connection borrowed = pool.borrow();
+      pool.close();
+
+      List<FakeJdbc.FakeConnection> opened = FakeJdbc.opened(_url);
+      long closed = opened.stream().filter(c -> c.closed).count();
+      assertEquals(1, closed);
+      assertEquals(1, stat(pool, "open"));
+      assertThrows(SQLException.class, pool::borrow);
+
+      pool.release(borrowed);
+      assertTrue(opened.stream().allMatch(c -> c.closed));
+      assertEquals(0, stat(pool, "open"));
+      assertEquals(2, stat(pool, "destroyed"));
+   }//end closeClosesIdleConnectionsAndLaterReleases
+
+   // one counter of ConnectionPool.stats()
+   private static long stat (ConnectionPool pool, String name) {
+      Matcher m = Pattern.compile("\\b" + name + "=(\\d+)").matcher(pool.stats());
+      assertTrue(m.find(), pool.stats());
+      return Long.parseLong(m.group(1));
+   }//end stat
+
+}//end ConnectionPoolTest
@@ -0,0 +1,104 @@
+/*
+ * Template JAVA User Interface
+ * =============================
+ *
+ * Database Management Systems
+ * Department of Computer Science &amp; Engineering
+ * University of California - Riverside
+ *
+ * Target DBMS: 'Postgres'
+ *
+ */
+
+package cafe;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class DurabilityPolicyTest {
+
+   // each policy reads its property once; these tests read it again
+   @BeforeEach
+   @AfterEach
+   void forgetSettings () throws ReflectiveOperationException {
+      Field cached = DurabilityPolicy.class.getDeclaredField("_synchronousCommit");
+      cached.setAccessible(true);
+      for (DurabilityPolicy policy : DurabilityPolicy.values()) {
+         System.clearProperty(policy.getProperty());
+         cached.set(policy, null);
+      }
+   }//end forgetSettings
+
+   @Test
+   void moneyWaitsForTheFlushAndStatusFlipsDoNot () {
+      assertEquals("on", DurabilityPolicy.ORDER.getSynchronousCommit());
+      assertEquals("on", DurabilityPolicy.PAYMENT.getSynchronousCommit());
+      assertEquals("off", DurabilityPolicy.ITEM_STATUS.getSynchronousCommit());
+   }//end moneyWaitsForTheFlushAndStatusFlipsDoNot
+
+   @Test
+   void readsEachSettingFromItsProperty () {
+      System.setProperty("cafe.durability.status", "local");
+      System.setProperty("cafe.durability.payment", "remote_apply");
+      DurabilityPolicy.checkSystemProperties();
+
+      assertEquals("local", DurabilityPolicy.ITEM_STATUS.getSynchronousCommit());
+      assertEquals("remote_apply", DurabilityPolicy.PAYMENT.getSynchronousCommit());
+      assertEquals("on", DurabilityPolicy.ORDER.getSynchronousCommit());
+      // read once, so a running client does not change its mind
+      System.setProperty("cafe.durability.status", "on");
+      assertEquals("local", DurabilityPolicy.ITEM_STATUS.getSynchronousCommit());
+   }//end readsEachSettingFromItsProperty
+
+   @Test
+   void aBadSettingNamesItsPropertyAndValue () {
+      // also keeps anything but a setting out of the SET LOCAL it is written into
+      System.setProperty("cafe.durability.order", "off; DROP TABLE Orders");
+
+      IllegalArgumentException e = assertThrows(IllegalArgumentException.class, DurabilityPolicy::checkSystemProperties);
+
+      assertTrue(e.getMessage().startsWith("-Dcafe.durability.order=off; DROP TABLE Orders is not a synchronous_commit setting"),
+                 e.getMessage());
+      assertTrue(e.getMessage().contains("remote_write"), e.getMessage());
+      // not remembered, so every use reports it
+      assertThrows(IllegalArgumentException.class, DurabilityPolicy.ORDER::getSynchronousCommit);
+      assertEquals("off", DurabilityPolicy.ITEM_STATUS.getSynchronousCommit());
+   }//end aBadSettingNamesItsPropertyAndValue
+
+   @Test
+   void appliesTheSettingToTheOpenTransaction () throws SQLException {
+      List<String> executed = new ArrayList<String>();
+      Statement stmt = (Statement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Statement.class },
+         (self, method, args) -> {
+            switch (method.getName()) {
+               case "execute": executed.add((String) args[0]); return false;
+               case "close": executed.add("close"); return null;
+               default: throw new UnsupportedOperationException("Statement." + method.getName());
+            }
+         });
+      Connection conn = (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Connection.class },
+         (self, method, args) -> {
+            if (method.getName().equals("createStatement"))
+               return stmt;
+            throw new UnsupportedOperationException("Connection." + method.getName());
+         });
+
+      DurabilityPolicy.ITEM_STATUS.apply(conn);
+
+      assertEquals(List.of("SET LOCAL synchronous_commit = off", "close"), executed);
+   }//end appliesTheSettingToTheOpenTransaction
+
+}//end DurabilityPolicyTest
@@ -0,0 +1,229 @@
+/*
+ * Template JAVA User Interface
+ * =============================
+ *
+ * Database Management Systems
+ * Department of Computer Science &amp; Engineering
+ * University of California - Riverside
+ *
+ * Target DBMS: 'Postgres'
+ *
+ */
+
+package cafe;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.DriverPropertyInfo;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Logger;
+
+/**
+ * In-memory stand-ins for the JDBC objects the pool, the statement cache
+ * and the order intake touch, so they can be tested without a database.
+ * Only the methods those classes call are implemented; anything else fails
+ * the test.
+ *
+ */
+final class FakeJdbc {
+
+   // URLs the fake driver answers
+   static final String URL_PREFIX = "jdbc:cafe-fake:";
+
+   private static final Map<String, List<FakeConnection>> OPENED = new ConcurrentHashMap<String, List<FakeConnection>>();
+   private static final Set<String> FAILING = ConcurrentHashMap.newKeySet();
+   private static final Map<String, Set<Object>> REJECTED = new ConcurrentHashMap<String, Set<Object>>();
+
+   static {
+      try {
+         DriverManager.registerDriver(new FakeDriver());
+      }catch (SQLException e) {
+         throw new ExceptionInInitializerError(e);
+      }
+   }
+
+   private FakeJdbc () {
+   }//end FakeJdbc
+
+   /**
+    * @param name distinguishes the connections of one test from the others
+    * @return a URL DriverManager opens fake connections for
+    */
+   static String url (String name) {
+      return URL_PREFIX + name;
+   }//end url
+
+   /**
+    * @return every connection opened for url so far, oldest first
+    */
+   static List<FakeConnection> opened (String url) {
+      return OPENED.computeIfAbsent(url, k -> new CopyOnWriteArrayList<FakeConnection>());
+   }//end opened
+
+   /**
+    * Makes opening connections to url fail, or succeed again.
+    */
+   static void failing (String url, boolean fail) {
+      if (fail)
+         FAILING.add(url);
+      else
+         FAILING.remove(url);
+   }//end failing
+
+   /**
+    * Makes every statement batch on connections to url fail while one of
+    * its rows has value as a parameter, the way a constraint violation
+    * fails the whole batch.
+    */
+   static void rejecting (String url, Object value) {
+      REJECTED.computeIfAbsent(url, k -> ConcurrentHashMap.newKeySet()).add(value);
+   }//end rejecting
+
+   /**
+    * A connection that records what was done with it.
+    */
+   static final class FakeConnection implements InvocationHandler {
+      final Connection proxy = (Connection) Proxy.newProxyInstance(
+         FakeJdbc.class.getClassLoader(), new Class<?>[] { Connection.class }, this);
+      final List<FakeStatement> prepared = new CopyOnWriteArrayList<FakeStatement>();
+      // the SQL of plain statements, and each commit and rollback, in order
+      final List<String> log = new CopyOnWriteArrayList<String>();
+      final String url;
+      volatile boolean closed = false;
+      volatile boolean autoCommit = true;
+      volatile int rollbacks = 0;
+
+      // one opened outside the driver
+      FakeConnection () {
+         this(URL_PREFIX);
+      }
+
+      FakeConnection (String url) {
+         this.url = url;
+      }
+
+      public Object invoke (Object self, Method method, Object[] args) throws SQLException {
+         switch (method.getName()) {
+            case "prepareStatement":
+               FakeStatement stmt = new FakeStatement(this, (String) args[0]);
+               prepared.add(stmt);
+               return stmt.proxy;
+            case "createStatement":
+               return Proxy.newProxyInstance(FakeJdbc.class.getClassLoader(), new Class<?>[] { Statement.class },
+                  (st, m, a) -> {
+                     switch (m.getName()) {
+                        case "execute": log.add((String) a[0]); return false;
+                        case "close": return null;
+                        default: throw new UnsupportedOperationException("Statement." + m.getName());
+                     }
+                  });
+            case "close": closed = true; return null;
+            case "isClosed": return closed;
+            case "isValid": return !closed;
+            case "getAutoCommit": return autoCommit;
+            case "setAutoCommit": autoCommit = (Boolean) args[0]; return null;
+            case "rollback": ++rollbacks; log.add("ROLLBACK"); return null;
+            case "commit": log.add("COMMIT"); return null;
+            case "hashCode": return System.identityHashCode(self);
+            case "equals": return self == args[0];
+            case "toString": return "FakeConnection@" + Integer.toHexString(System.identityHashCode(self));
+            default: throw new UnsupportedOperationException("Connection." + method.getName());
+         }
+      }
+   }//end FakeConnection
+
+   /**
+    * A prepared statement that keeps the rows of the batches it executed.
+    */
+   static final class FakeStatement implements InvocationHandler {
+      final PreparedStatement proxy = (PreparedStatement) Proxy.newProxyInstance(
+         FakeJdbc.class.getClassLoader(), new Class<?>[] { PreparedStatement.class }, this);
+      final FakeConnection conn;
+      final String sql;
+      // the parameters of every row of every batch executed, failed or not
+      final List<List<Object>> executed = new CopyOnWriteArrayList<List<Object>>();
+      private final List<List<Object>> _batch = new ArrayList<List<Object>>();
+      private Object[] _params = new Object[0];
+      boolean closed = false;
+      int clears = 0;
+
+      FakeStatement (FakeConnection conn, String sql) {
+         this.conn = conn;
+         this.sql = sql;
+      }
+
+      public Object invoke (Object self, Method method, Object[] args) throws SQLException {
+         switch (method.getName()) {
+            case "close": closed = true; return null;
+            case "isClosed": return closed;
+            case "clearParameters": ++clears; _params = new Object[0]; return null;
+            case "setInt": case "setString": case "setBoolean": case "setObject":
+               int index = (Integer) args[0];
+               if (_params.length < index)
+                  _params = Arrays.copyOf(_params, index);
+               _params[index - 1] = args[1];
+               return null;
+            case "addBatch": _batch.add(Arrays.asList(_params.clone())); return null;
+            case "executeBatch": return executeBatch();
+            case "hashCode": return System.identityHashCode(self);
+            case "equals": return self == args[0];
+            case "toString": return "FakeStatement[" + sql + "]";
+            default: throw new UnsupportedOperationException("PreparedStatement." + method.getName());
+         }
+      }
+
+      // one row changed per row of the batch, unless a row has a rejected value
+      private int[] executeBatch () throws SQLException {
+         List<List<Object>> rows = new ArrayList<List<Object>>(_batch);
+         _batch.clear();
+         executed.addAll(rows);
+         Set<Object> rejected = REJECTED.getOrDefault(conn.url, Set.of());
+         for (List<Object> row : rows)
+            for (Object value : row)
+               if (rejected.contains(value))
+                  throw new BatchUpdateException("rejected " + value, new int[0]);
+         int[] counts = new int[rows.size()];
+         Arrays.fill(counts, 1);
+         return counts;
+      }
+   }//end FakeStatement
+
+   private static final class FakeDriver implements Driver {
+      public Connection connect (String url, Properties info) throws SQLException {
+         if (!acceptsURL(url))
+            return null;
+         if (FAILING.contains(url))
+            throw new SQLException("connection refused: " + url);
+         FakeConnection conn = new FakeConnection(url);
+         opened(url).add(conn);
+         return conn.proxy;
+      }
+
+      public boolean acceptsURL (String url) { return url.startsWith(URL_PREFIX); }
+      public DriverPropertyInfo[] getPropertyInfo (String url, Properties info) { return new DriverPropertyInfo[0]; }
+      public int getMajorVersion () { return 1; }
+      public int getMinorVersion () { return 0; }
+      public boolean jdbcCompliant () { return false; }
+
+      public Logger getParentLogger () throws SQLFeatureNotSupportedException {
+         throw new SQLFeatureNotSupportedException();
+      }
+   }//end FakeDriver
+
+}//end FakeJdbc
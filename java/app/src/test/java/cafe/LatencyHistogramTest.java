@@ -0,0 +1,125 @@
+/*
+ * Template JAVA User Interface
+ * =============================
+ *
+ * Database Management Systems
+ * Department of Computer Science &amp; Engineering
+ * University of California - Riverside
+ *
+ * Target DBMS: 'Postgres'
+ *
+ */
+
+package cafe;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+class LatencyHistogramTest {
+
+   private static final long MILLI = 1000000L;
+
+   @Test
+   void countsSmallValuesExactly () {
+      for (int i = 0; i < 16; ++i) {
+         assertEquals(i, LatencyHistogram.bucket(i));
+         assertEquals(i, LatencyHistogram.highest(i));
+      }
+   }//end countsSmallValuesExactly
+
+   @Test
+   void bucketsHoldTheirValuesWithinASixteenth () {
+      SplittableRandom random = new SplittableRandom(42);
+      for (int n = 0; n < 100000; ++n) {
+         long value = random.nextLong(1L << random.nextInt(1, 63));
+         assertHolds(value);
+      }
+      for (int shift = 0; shift < 63; ++shift) {
+         assertHolds(1L << shift);
+         assertHolds((1L << shift) - 1);
+      }
+      assertHolds(Long.MAX_VALUE);
+      assertEquals(Long.MAX_VALUE, LatencyHistogram.highest(LatencyHistogram.bucket(Long.MAX_VALUE)));
+   }//end bucketsHoldTheirValuesWithinASixteenth
+
+   // value falls in its bucket, the bucket before ends below it, and the bucket spans at most value / 16
+   private static void assertHolds (long value) {
+      int bucket = LatencyHistogram.bucket(value);
+      long highest = LatencyHistogram.highest(bucket);
+      long lowest = bucket == 0 ? 0 : LatencyHistogram.highest(bucket - 1) + 1;
+      assertTrue(lowest <= value && value <= highest, value + " not in [" + lowest + ", " + highest + "]");
+      assertTrue(highest - lowest <= value / 16, value + " in a bucket " + (highest - lowest + 1) + " wide");
+   }//end assertHolds
+
+   @Test
+   void percentilesOfAUniformSpread () {
+      LatencyHistogram histogram = new LatencyHistogram("uniform");
+      for (long ms = 1; ms <= 1000; ++ms)
+         histogram.record(ms * MILLI, true);
+      LatencyHistogram.Snapshot s = histogram.snapshot();
+
+      assertEquals(1000, s.getCount());
+      assertEquals(500.5 * MILLI, s.getMeanNanos(), 1e-6);
+      assertEquals(1000 * MILLI, s.getMaxNanos());
+      assertWithinASixteenth(500 * MILLI, s.percentileNanos(0.50));
+      assertWithinASixteenth(990 * MILLI, s.percentileNanos(0.99));
+      assertWithinASixteenth(999 * MILLI, s.percentileNanos(0.999));
+      // the top percentile is capped at the largest time recorded
+      assertEquals(1000 * MILLI, s.percentileNanos(1.0));
+      assertEquals(1000.0, histogram.getMaxMillis(), 1e-9);
+   }//end percentilesOfAUniformSpread
+
+   // reported is the top of the bucket holding expected
+   private static void assertWithinASixteenth (long expected, long reported) {
+      assertTrue(reported >= expected && reported <= expected + expected / 16,
+                 "expected about " + expected + " but was " + reported);
+   }//end assertWithinASixteenth
+
+   @Test
+   void anEmptyHistogramReportsZeros () {
+      LatencyHistogram.Snapshot s = new LatencyHistogram("empty").snapshot();
+
+      assertEquals(0, s.getCount());
+      assertEquals(0, s.percentileNanos(0.99));
+      assertEquals(0.0, s.getMeanNanos());
+      assertEquals(0.0, s.getErrorRate());
+   }//end anEmptyHistogramReportsZeros
+
+   @Test
+   void countsErrorsAndClampsNegativeTimes () {
+      LatencyHistogram histogram = new LatencyHistogram("errors");
+      histogram.record(5, true);
+      histogram.record(5, true);
+      histogram.record(5, true);
+      histogram.record(-7, false);
+      LatencyHistogram.Snapshot s = histogram.snapshot();
+
+      assertEquals(4, s.getCount());
+      assertEquals(1, s.getErrorCount());
+      assertEquals(0.25, s.getErrorRate());
+      assertEquals(0, s.percentileNanos(0.25));
+      assertEquals(5, s.getMaxNanos());
+   }//end countsErrorsAndClampsNegativeTimes
+
+   @Test
+   void sinceKeepsOnlyTheLaterRecords () {
+      LatencyHistogram histogram = new LatencyHistogram("period");
+      for (int i = 0; i < 100; ++i)
+         histogram.record(1 * MILLI, i % 10 != 0);
+      LatencyHistogram.Snapshot before = histogram.snapshot();
+      histogram.record(10 * MILLI, true);
+      histogram.record(10 * MILLI, false);
+      LatencyHistogram.Snapshot period = histogram.snapshot().since(before);
+
+      assertEquals(2, period.getCount());
+      assertEquals(1, period.getErrorCount());
+      assertEquals(10.0 * MILLI, period.getMeanNanos(), 1e-6);
+      assertWithinASixteenth(10 * MILLI, period.percentileNanos(0.5));
+      assertWithinASixteenth(10 * MILLI, period.getMaxNanos());
+   }//end sinceKeepsOnlyTheLaterRecords
+
+}//end LatencyHistogramTest
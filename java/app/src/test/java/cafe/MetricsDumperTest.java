@@ -0,0 +1,56 @@
+/*
+ * Template JAVA User Interface
+ * =============================
+ *
+ * Database Management Systems
+ * Department of Computer Science &amp; Engineering
+ * University of California - Riverside
+ *
+ * Target DBMS: 'Postgres'
+ *
+ */
+
+package cafe;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MetricsDumperTest {
+
+   @Test
+   void writesPointDecimalsWhateverTheLocale (@TempDir Path dir) throws IOException {
+      LatencyRegistry registry = new LatencyRegistry("statement");
+      registry.histogram("select").record(1500000L, true);
+      registry.histogram("select").record(2500000L, false);
+      File file = dir.resolve("metrics.csv").toFile();
+
+      Locale saved = Locale.getDefault();
+      Locale.setDefault(Locale.GERMANY);
+      try (MetricsDumper dumper = new MetricsDumper(file, List.of(registry), 3600L)) {
+         dumper.dump();
+      }finally {
+         Locale.setDefault(saved);
+      }
+
+      // close() dumps once more, but nothing ran since
+      List<String> lines = Files.readAllLines(file.toPath());
+      assertEquals(2, lines.size());
+      String[] fields = lines.get(1).split(",");
+      assertEquals(lines.get(0).split(",").length, fields.length, lines.get(1));
+      assertEquals("statement", fields[1]);
+      assertEquals("select", fields[2]);
+      assertEquals("2", fields[3]);
+      assertEquals("1", fields[4]);
+      assertEquals("0.50000", fields[5]);
+   }//end writesPointDecimalsWhateverTheLocale
+
+}//end MetricsDumperTest
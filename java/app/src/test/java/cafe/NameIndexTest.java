@@ -0,0 +1,76 @@
+/*
+ * Template JAVA User Interface
+ * =============================
+ *
+ * Database Management Systems
+ * Department of Computer Science &amp; Engineering
+ * University of California - Riverside
+ *
+ * Target DBMS: 'Postgres'
+ *
+ */
+
+package cafe;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class NameIndexTest {
+
+   private final NameIndex _menu = new NameIndex(Arrays.asList(
+      "Almond Latte", "Cappuccino", "Cappuccino Grande", "Hot Latte", "Iced Latte",
+      "Latte", "Lemon Lemonade", "Mocha", "Tomato Soup"));
+
+   @Test
+   void exactNamesWinInAnyCase () {
+      assertEquals(List.of("Latte"), _menu.search("  LATTE ", 10));
+      assertEquals(List.of("Mocha"), _menu.search("mocha", 10));
+   }//end exactNamesWinInAnyCase
+
+   @Test
+   void namesStartingWithThePrefixComeFirst () {
+      assertEquals(List.of("Latte", "Almond Latte", "Hot Latte", "Iced Latte"), _menu.withPrefix("lat", 10));
+      assertEquals(List.of("Tomato Soup"), _menu.search("sou", 10));
+   }//end namesStartingWithThePrefixComeFirst
+
+   @Test
+   void theLimitAppliesAfterRanking () {
+      // the later-word matches sort before "Latte" in the trie, yet it is the best match
+      assertEquals(List.of("Latte"), _menu.withPrefix("lat", 1));
+      assertEquals(List.of("Latte", "Almond Latte"), _menu.withPrefix("LAT", 2));
+   }//end theLimitAppliesAfterRanking
+
+   @Test
+   void aNameMatchingOnSeveralWordsIsListedOnce () {
+      assertEquals(List.of("Lemon Lemonade"), _menu.withPrefix("lemon", 10));
+   }//end aNameMatchingOnSeveralWordsIsListedOnce
+
+   @Test
+   void unknownPrefixesMatchNothing () {
+      assertTrue(_menu.withPrefix("zz", 10).isEmpty());
+      assertTrue(_menu.search("   ", 10).isEmpty());
+   }//end unknownPrefixesMatchNothing
+
+   @Test
+   void misspellingsAreRankedByTrigramSimilarity () {
+      // capucino shares 7 trigrams with cappuccino: 7 / (9 + 11 - 7) = 0.54,
+      // and the same 7 with cappuccino grande: 7 / (9 + 18 - 7) = 0.35
+      assertEquals(List.of("Cappuccino", "Cappuccino Grande"), _menu.similar("capucino", 10));
+      assertEquals(List.of("Cappuccino", "Cappuccino Grande"), _menu.search("capucino", 10));
+      assertEquals(List.of("Cappuccino"), _menu.similar("capucino", 1));
+   }//end misspellingsAreRankedByTrigramSimilarity
+
+   @Test
+   void namesBelowTheThresholdAreLeftOut () {
+      // mocca shares "  m", " mo", "moc" with mocha: 3 / (6 + 6 - 3) = 0.33
+      assertEquals(List.of("Mocha"), _menu.similar("mocca", 10));
+      // moka shares "  m", " mo" with mocha: 2 / (5 + 6 - 2) = 0.22
+      assertTrue(_menu.similar("moka", 10).isEmpty());
+   }//end namesBelowTheThresholdAreLeftOut
+
+}//end NameIndexTest
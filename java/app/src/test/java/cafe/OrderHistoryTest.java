@@ -0,0 +1,179 @@
+/*
+ * Template JAVA User Interface
+ * =============================
+ *
+ * Database Management Systems
+ * Department of Computer Science &amp; Engineering
+ * University of California - Riverside
+ *
+ * Target DBMS: 'Postgres'
+ *
+ */
+
+package cafe;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class OrderHistoryTest {
+
+   private static final LocalDateTime START = LocalDateTime.of(2026, 1, 5, 8, 0);
+   private static final String SELECT = "SELECT orderid, timeStampRecieved, total, paid FROM Orders WHERE login = ?";
+
+   /**
+    * Keeps the queries OrderHistory sends with their parameters, and
+    * answers each with the next scripted list of orderids, in the order
+    * given. Order i was received i days after START and costs i.
+    */
+   private static final class FakeCafe extends Cafe {
+      final List<String> queries = new ArrayList<String>();
+      final List<List<Object>> params = new ArrayList<List<Object>>();
+      final Deque<int[]> answers = new ArrayDeque<int[]>();
+
+      FakeCafe (int[]... answers) {
+         super((ConnectionPool) null);
+         this.answers.addAll(Arrays.asList(answers));
+      }
+
+      @Override
+      public <T> List<T> executeQueryAndMap (String query, RowMapper<T> mapper, Object... params) throws SQLException {
+         queries.add(query);
+         this.params.add(Arrays.asList(params));
+         List<T> mapped = new ArrayList<T>();
+         for (int orderid : answers.remove())
+            mapped.add(mapper.map(resultSet(orderid)));
+         return mapped;
+      }
+   }//end FakeCafe
+
+   // a result set positioned on one row of the history query
+   private static ResultSet resultSet (int orderid) {
+      return (ResultSet) Proxy.newProxyInstance(OrderHistoryTest.class.getClassLoader(), new Class<?>[] { ResultSet.class },
+         (self, method, args) -> {
+            switch (method.getName() + (args == null ? "" : args[0])) {
+               case "getInt1": return orderid;
+               case "getObject2": return START.plusDays(orderid);
+               case "getFloat3": return (float) orderid;
+               case "getBoolean4": return true;
+               default: throw new UnsupportedOperationException("ResultSet." + method.getName());
+            }
+         });
+   }//end resultSet
+
+   // orderids from, from - step, ... for count orders
+   private static int[] run (int from, int step, int count) {
+      int[] ids = new int[count];
+      for (int i = 0; i < count; ++i)
+         ids[i] = from - i * step;
+      return ids;
+   }//end run
+
+   private static List<Integer> ids (OrderHistory.Page page) {
+      List<Integer> ids = new ArrayList<Integer>();
+      for (OrderHistory.Entry e : page.getEntries())
+         ids.add(e.getOrderid());
+      return ids;
+   }//end ids
+
+   @Test
+   void asksForOneRowMoreThanAPageToKnowThereAreOlder () throws SQLException {
+      FakeCafe esql = new FakeCafe(run(49, 2, 11));
+      OrderHistory history = new OrderHistory(esql, "alice", null, null, 10);
+
+      OrderHistory.Page first = history.newest();
+
+      assertEquals(SELECT + " ORDER BY orderid DESC LIMIT ?", esql.queries.get(0));
+      assertEquals(List.of("alice", 11), esql.params.get(0));
+      assertEquals(List.of(49, 47, 45, 43, 41, 39, 37, 35, 33, 31), ids(first));
+      assertTrue(first.hasOlder());
+      assertFalse(first.hasNewer());
+   }//end asksForOneRowMoreThanAPageToKnowThereAreOlder
+
+   @Test
+   void seeksOlderOrdersFromTheLastOrderOfThePage () throws SQLException {
+      FakeCafe esql = new FakeCafe(run(49, 2, 11), run(29, 2, 5));
+      OrderHistory history = new OrderHistory(esql, "alice", null, null, 10);
+
+      OrderHistory.Page older = history.older(history.newest());
+
+      assertEquals(SELECT + " AND orderid < ? ORDER BY orderid DESC LIMIT ?", esql.queries.get(1));
+      assertEquals(List.of("alice", 31, 11), esql.params.get(1));
+      assertEquals(List.of(29, 27, 25, 23, 21), ids(older));
+      assertFalse(older.hasOlder());
+      assertTrue(older.hasNewer());
+      assertEquals(125.0f, older.getTotal());
+   }//end seeksOlderOrdersFromTheLastOrderOfThePage
+
+   @Test
+   void seeksNewerOrdersUpwardsAndShowsThemNewestFirst () throws SQLException {
+      // the page on screen is 9 to 1; the database answers upwards from 9
+      FakeCafe esql = new FakeCafe(run(9, 2, 5), new int[] { 11, 13, 15, 17 });
+      OrderHistory history = new OrderHistory(esql, "alice", null, null, 3);
+      OrderHistory.Page newer = history.newer(history.newest());
+
+      assertEquals(SELECT + " AND orderid > ? ORDER BY orderid ASC LIMIT ?", esql.queries.get(1));
+      assertEquals(List.of("alice", 9, 4), esql.params.get(1));
+      assertEquals(List.of(15, 13, 11), ids(newer));
+      assertTrue(newer.hasOlder());
+      assertTrue(newer.hasNewer());
+   }//end seeksNewerOrdersUpwardsAndShowsThemNewestFirst
+
+   @Test
+   void theNewestPageUpwardsHasNothingNewer () throws SQLException {
+      FakeCafe esql = new FakeCafe(run(7, 2, 4), new int[] { 9, 11 });
+      OrderHistory history = new OrderHistory(esql, "alice", null, null, 3);
+
+      OrderHistory.Page newer = history.newer(history.newest());
+
+      assertEquals(List.of(11, 9), ids(newer));
+      assertFalse(newer.hasNewer());
+   }//end theNewestPageUpwardsHasNothingNewer
+
+   @Test
+   void bindsTheDateRangeBetweenTheKeysetAndTheLimit () throws SQLException {
+      LocalDateTime from = START.plusDays(11);
+      LocalDateTime to = START.plusDays(21);
+      FakeCafe esql = new FakeCafe(new int[] { 19, 17, 15, 13 }, new int[] { 13, 11 });
+      OrderHistory history = new OrderHistory(esql, "alice", from, to, 3);
+
+      history.older(history.newest());
+
+      assertEquals(SELECT + " AND timeStampRecieved >= ? AND timeStampRecieved < ? ORDER BY orderid DESC LIMIT ?",
+                   esql.queries.get(0));
+      assertEquals(List.of("alice", from, to, 4), esql.params.get(0));
+      assertEquals(SELECT + " AND orderid < ? AND timeStampRecieved >= ? AND timeStampRecieved < ? ORDER BY orderid DESC LIMIT ?",
+                   esql.queries.get(1));
+      assertEquals(List.of("alice", 15, from, to, 4), esql.params.get(1));
+   }//end bindsTheDateRangeBetweenTheKeysetAndTheLimit
+
+   @Test
+   void anEmptyPageStartsOverFromTheNewest () throws SQLException {
+      FakeCafe esql = new FakeCafe(new int[0], new int[0], new int[0]);
+      OrderHistory history = new OrderHistory(esql, "carol", null, null, 10);
+      OrderHistory.Page page = history.newest();
+
+      assertTrue(page.getEntries().isEmpty());
+      assertFalse(page.hasOlder());
+      assertFalse(page.hasNewer());
+      assertEquals(0, page.getFirstOrderid());
+      assertTrue(history.older(page).getEntries().isEmpty());
+      assertTrue(history.newer(page).getEntries().isEmpty());
+      // no keyset to seek from, so no orderid 0 either
+      for (List<Object> params : esql.params)
+         assertEquals(List.of("carol", 11), params);
+   }//end anEmptyPageStartsOverFromTheNewest
+
+}//end OrderHistoryTest
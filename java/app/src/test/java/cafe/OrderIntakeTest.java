@@ -0,0 +1,197 @@
+/*
+ * Template JAVA User Interface
+ * =============================
+ *
+ * Database Management Systems
+ * Department of Computer Science &amp; Engineering
+ * University of California - Riverside
+ *
+ * Target DBMS: 'Postgres'
+ *
+ */
+
+package cafe;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Field;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInfo;
+
+class OrderIntakeTest {
+
+   // long enough that requests submitted back to back share a batch
+   private static final long LINGER_MILLIS = 300;
+
+   private String _url;
+   private ConnectionPool _pool;
+   private OrderIntake _intake;
+
+   private OrderIntake intake (TestInfo test, int minSize) throws SQLException {
+      _url = FakeJdbc.url("intake-" + test.getDisplayName());
+      _pool = new ConnectionPool(_url, minSize, 2, 60000L, 1000L);
+      _intake = new OrderIntake(new Cafe(_pool), null, 16, 8, LINGER_MILLIS);
+      return _intake;
+   }//end intake
+
+   @AfterEach
+   void close () throws ReflectiveOperationException {
+      if (_intake != null)
+         _intake.close();
+      if (_pool != null)
+         _pool.close();
+      forgetStatusSetting();
+   }//end close
+
+   // every statement the intake executed on its one connection, in order
+   private List<String> log () {
+      return FakeJdbc.opened(_url).get(0).log;
+   }//end log
+
+   // the rows of every batch of one statement, over all its executions
+   private List<List<Object>> rows (String sqlStart) {
+      List<List<Object>> rows = new ArrayList<List<Object>>();
+      for (FakeJdbc.FakeStatement stmt : FakeJdbc.opened(_url).get(0).prepared)
+         if (stmt.sql.startsWith(sqlStart))
+            rows.addAll(stmt.executed);
+      return rows;
+   }//end rows
+
+   private static int get (CompletableFuture<Integer> result) throws Exception {
+      return result.get(5, TimeUnit.SECONDS);
+   }//end get
+
+   private static Throwable failure (CompletableFuture<Integer> result) {
+      return assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS)).getCause();
+   }//end failure
+
+   // DurabilityPolicy reads its property once; make the next use read it again
+   private static void forgetStatusSetting () throws ReflectiveOperationException {
+      System.clearProperty(DurabilityPolicy.ITEM_STATUS.getProperty());
+      Field cached = DurabilityPolicy.class.getDeclaredField("_synchronousCommit");
+      cached.setAccessible(true);
+      cached.set(DurabilityPolicy.ITEM_STATUS, null);
+   }//end forgetStatusSetting
+
+   @Test
+   void commitsRequestsQueuedTogetherInOneTransaction (TestInfo test) throws Exception {
+      OrderIntake intake = intake(test, 1);
+
+      CompletableFuture<Integer> a = intake.submitStatus(1, "Latte", "Started");
+      CompletableFuture<Integer> b = intake.submitStatus(2, "Mocha", "Started");
+      CompletableFuture<Integer> c = intake.submitStatus(3, "Tea", "Finished");
+
+      assertEquals(1, get(a));
+      assertEquals(1, get(b));
+      assertEquals(1, get(c));
+      assertEquals(1, intake.getBatchCount());
+      assertEquals(3, intake.getMaxBatchSize());
+      assertEquals(List.of("SET LOCAL synchronous_commit = off", "COMMIT"), log());
+      // unknown orders are looked up by their orderid, bound again last
+      assertEquals(List.of(List.of("Started", 1, "Latte", 1), List.of("Started", 2, "Mocha", 2), List.of("Finished", 3, "Tea", 3)),
+                   rows("UPDATE ItemStatus"));
+   }//end commitsRequestsQueuedTogetherInOneTransaction
+
+   @Test
+   void commitsEachDurabilityInItsOwnTransaction (TestInfo test) throws Exception {
+      OrderIntake intake = intake(test, 1);
+
+      CompletableFuture<Integer> status = intake.submitStatus(1, "Latte", "Started");
+      CompletableFuture<Integer> paid = intake.submitPaid(2, true);
+
+      assertEquals(1, get(status));
+      assertEquals(1, get(paid));
+      assertEquals(List.of("SET LOCAL synchronous_commit = off", "COMMIT", "SET LOCAL synchronous_commit = on", "COMMIT"), log());
+      assertEquals(List.of(List.of(true, 2, 2)), rows("UPDATE Orders"));
+   }//end commitsEachDurabilityInItsOwnTransaction
+
+   @Test
+   void aBadRequestFailsAloneAfterTheBatchIsRetriedOneByOne (TestInfo test) throws Exception {
+      OrderIntake intake = intake(test, 1);
+      FakeJdbc.rejecting(_url, "Burnt");
+
+      CompletableFuture<Integer> a = intake.submitStatus(1, "Latte", "Started");
+      CompletableFuture<Integer> bad = intake.submitStatus(2, "Mocha", "Burnt");
+      CompletableFuture<Integer> c = intake.submitStatus(3, "Tea", "Finished");
+
+      assertEquals(1, get(a));
+      assertEquals(1, get(c));
+      assertInstanceOf(SQLException.class, failure(bad));
+      assertEquals(3, intake.getRetriedCount());
+      assertEquals(1, intake.getFailedCount());
+      assertEquals(List.of("SET LOCAL synchronous_commit = off", "ROLLBACK",
+                           "SET LOCAL synchronous_commit = off", "COMMIT",
+                           "SET LOCAL synchronous_commit = off", "ROLLBACK",
+                           "SET LOCAL synchronous_commit = off", "COMMIT"), log());
+   }//end aBadRequestFailsAloneAfterTheBatchIsRetriedOneByOne
+
+   @Test
+   void aRequestAloneIsNotRetried (TestInfo test) throws Exception {
+      OrderIntake intake = intake(test, 1);
+      FakeJdbc.rejecting(_url, "Burnt");
+
+      assertInstanceOf(SQLException.class, failure(intake.submitStatus(2, "Mocha", "Burnt")));
+      assertEquals(0, intake.getRetriedCount());
+      assertEquals(1, intake.getFailedCount());
+      // the writer goes on with the next request
+      assertEquals(1, get(intake.submitStatus(3, "Tea", "Started")));
+   }//end aRequestAloneIsNotRetried
+
+   @Test
+   void failsEveryRequestWhenNoConnectionCanBeHad (TestInfo test) throws Exception {
+      OrderIntake intake = intake(test, 0);
+      FakeJdbc.failing(_url, true);
+      try {
+         CompletableFuture<Integer> a = intake.submitStatus(1, "Latte", "Started");
+         CompletableFuture<Integer> b = intake.submitPaid(2, true);
+
+         assertInstanceOf(SQLException.class, failure(a));
+         assertInstanceOf(SQLException.class, failure(b));
+         assertEquals(2, intake.getFailedCount());
+      }finally {
+         FakeJdbc.failing(_url, false);
+      }
+   }//end failsEveryRequestWhenNoConnectionCanBeHad
+
+   @Test
+   void anUnexpectedErrorFailsTheBatchInsteadOfLeavingItWaiting (TestInfo test) throws Exception {
+      OrderIntake intake = intake(test, 1);
+      forgetStatusSetting();
+      System.setProperty(DurabilityPolicy.ITEM_STATUS.getProperty(), "sometimes");
+
+      CompletableFuture<Integer> a = intake.submitStatus(1, "Latte", "Started");
+      CompletableFuture<Integer> b = intake.submitPaid(2, true);
+
+      assertInstanceOf(IllegalArgumentException.class, failure(a));
+      assertInstanceOf(IllegalArgumentException.class, failure(b));
+      // the writer survived it
+      forgetStatusSetting();
+      assertEquals(1, get(intake.submitStatus(3, "Tea", "Started")));
+   }//end anUnexpectedErrorFailsTheBatchInsteadOfLeavingItWaiting
+
+   @Test
+   void closeWritesWhatIsQueuedAndRefusesMore (TestInfo test) throws Exception {
+      OrderIntake intake = intake(test, 1);
+      CompletableFuture<Integer> queued = intake.submitPaid(2, true);
+
+      intake.close();
+
+      assertTrue(queued.isDone());
+      assertEquals(1, get(queued));
+      SQLException e = assertThrows(SQLException.class, () -> intake.submitStatus(1, "Latte", "Started"));
+      assertEquals("Order intake is closed", e.getMessage());
+      assertEquals(1, intake.getRequestCount());
+   }//end closeWritesWhatIsQueuedAndRefusesMore
+
+}//end OrderIntakeTest
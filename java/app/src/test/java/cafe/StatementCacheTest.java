@@ -0,0 +1,93 @@
+/*
+ * Template JAVA User Interface
+ * =============================
+ *
+ * Database Management Systems
+ * Department of Computer Science &amp; Engineering
+ * University of California - Riverside
+ *
+ * Target DBMS: 'Postgres'
+ *
+ */
+
+package cafe;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+import org.junit.jupiter.api.Test;
+
+class StatementCacheTest {
+
+   private final FakeJdbc.FakeConnection _conn = new FakeJdbc.FakeConnection();
+
+   @Test
+   void returnsTheCachedStatementWithItsParametersCleared () throws SQLException {
+      StatementCache cache = new StatementCache(_conn.proxy, 4);
+      PreparedStatement first = cache.prepare("SELECT 1");
+      PreparedStatement second = cache.prepare("SELECT 1");
+
+      assertSame(first, second);
+      assertEquals(1, _conn.prepared.size());
+      assertEquals(1, _conn.prepared.get(0).clears);
+      assertEquals(1, cache.getHits());
+      assertEquals(1, cache.getMisses());
+   }//end returnsTheCachedStatementWithItsParametersCleared
+
+   @Test
+   void evictsAndClosesTheLeastRecentlyUsedStatement () throws SQLException {
+      StatementCache cache = new StatementCache(_conn.proxy, 2);
+      cache.prepare("a");
+      cache.prepare("b");
+      // a is now the most recently used, so c pushes b out
+      cache.prepare("a");
+      cache.prepare("c");
+
+      assertEquals(2, cache.size());
+      FakeJdbc.FakeStatement a = _conn.prepared.get(0);
+      FakeJdbc.FakeStatement b = _conn.prepared.get(1);
+      FakeJdbc.FakeStatement c = _conn.prepared.get(2);
+      assertFalse(a.closed);
+      assertTrue(b.closed);
+      assertFalse(c.closed);
+
+      // b is prepared again, which evicts a, the eldest by now
+      cache.prepare("b");
+      assertEquals(4, _conn.prepared.size());
+      assertTrue(a.closed);
+      assertEquals(1, cache.getHits());
+      assertEquals(4, cache.getMisses());
+   }//end evictsAndClosesTheLeastRecentlyUsedStatement
+
+   @Test
+   void preparesAgainAfterTheStatementWasClosed () throws SQLException {
+      StatementCache cache = new StatementCache(_conn.proxy, 4);
+      PreparedStatement first = cache.prepare("SELECT 1");
+      first.close();
+      PreparedStatement second = cache.prepare("SELECT 1");
+
+      assertNotSame(first, second);
+      assertEquals(1, cache.size());
+      assertEquals(0, cache.getHits());
+      assertEquals(2, cache.getMisses());
+   }//end preparesAgainAfterTheStatementWasClosed
+
+   @Test
+   void closeClosesEveryStatement () throws SQLException {
+      StatementCache cache = new StatementCache(_conn.proxy, 4);
+      cache.prepare("a");
+      cache.prepare("b");
+      cache.close();
+
+      assertEquals(0, cache.size());
+      for (FakeJdbc.FakeStatement stmt : _conn.prepared)
+         assertTrue(stmt.closed, stmt.sql);
+   }//end closeClosesEveryStatement
+
+}//end StatementCacheTest
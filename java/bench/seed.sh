@@ -0,0 +1,49 @@
+#!/bin/bash
+DIR="$( cd "$( dirname "${BASH_SOURCE[0]}" )" && pwd )"
+SQL=$DIR/../../project/sql/src
+DATA=$DIR/../../project/data
+
+# usage: seed.sh [dbname] [orders]
+# Recreates the schema, loads users and menu from project/data and
+# generates orders and item statuses for the benchmarks.
+DB=${1:-mydb}
+ORDERS=${2:-1000000}
+
+#set the script to exit out on error
+set -e
+
+psql -h 127.0.0.1 $DB < $SQL/create_tables.sql
+psql -h 127.0.0.1 $DB < $SQL/create_partitions.sql
+psql -h 127.0.0.1 $DB < $SQL/create_triggers.sql
+psql -h 127.0.0.1 $DB < $SQL/migrate_favorites.sql
+cd $DATA
+psql -h 127.0.0.1 $DB -v ON_ERROR_STOP=1 -v orders=$ORDERS <<'SQL'
+\copy Menu FROM 'menu.csv' WITH DELIMITER ';'
+\copy Users FROM 'users.csv' WITH DELIMITER ';'
+SELECT migrate_favitems();
+
+-- orders spread over the last 30 days; the last few hours are still unpaid
+SELECT ensure_partitions(LOCALTIMESTAMP - interval '31 days', LOCALTIMESTAMP);
+INSERT INTO Orders (login, paid, timeStampRecieved, total)
+SELECT u.logins[1 + (hashint4(g) & 2147483647) % array_length(u.logins, 1)],
+       g < :orders - 500,
+       NOW() - (:orders - g) * ('30 days'::interval / :orders),
+       0
+FROM generate_series(1, :orders) g,
+     (SELECT array_agg(login) AS logins FROM Users) u;
+
+-- the ItemStatus triggers fill in item prices and the order totals
+INSERT INTO ItemStatus (orderid, itemName, lastUpdated, status, orderReceived)
+SELECT o.orderid,
+       m.items[1 + (o.orderid * 7 + k) % array_length(m.items, 1)],
+       o.timeStampRecieved,
+       (CASE WHEN o.paid THEN 'Finished' ELSE 'Hasn''t Started' END)::item_status,
+       o.timeStampRecieved
+FROM Orders o,
+     (SELECT array_agg(itemName) AS items FROM Menu) m,
+     LATERAL generate_series(0, o.orderid % 3) k;
+SQL
+# the order feed triggers would publish every generated row
+psql -h 127.0.0.1 $DB < $SQL/create_notify.sql
+psql -h 127.0.0.1 $DB < $SQL/create_indexes.sql
+psql -h 127.0.0.1 $DB -c "VACUUM ANALYZE"
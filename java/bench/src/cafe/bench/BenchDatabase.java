@@ -0,0 +1,56 @@
+/*
+ * Template JAVA User Interface
+ * =============================
+ *
+ * Database Management Systems
+ * Department of Computer Science &amp; Engineering
+ * University of California - Riverside
+ *
+ * Target DBMS: 'Postgres'
+ *
+ */
+
+package cafe.bench;
+
+import cafe.Cafe;
+import cafe.ConnectionPool;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.sql.SQLException;
+
+/**
+ * Connection settings shared by the benchmarks. The database is chosen with
+ * -Dcafe.db (default mydb) and -Dcafe.port (default $PGPORT or 5432) and
+ * must be seeded with bench/seed.sh first.
+ *
+ */
+public final class BenchDatabase {
+
+   private BenchDatabase () {
+   }
+
+   public static String url () {
+      String port = System.getProperty("cafe.port", System.getenv().getOrDefault("PGPORT", "5432"));
+      String db = System.getProperty("cafe.db", "mydb");
+      return "jdbc:postgresql://127.0.0.1:" + port + "/" + db
+             + "?stringtype=unspecified&reWriteBatchedInserts=true";
+   }//end url
+
+   /**
+    * @param maxSize upper bound on pooled connections
+    * @return a pool on the benchmark database
+    * @throws java.sql.SQLException when the database cannot be reached
+    */
+   public static ConnectionPool openPool (int maxSize) throws SQLException {
+      return new ConnectionPool(url(), 1, maxSize, 60000L, 30000L);
+   }//end openPool
+
+   /**
+    * Discards what the Cafe methods print, so console speed is not measured.
+    */
+   public static void silenceStdout () {
+      System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+   }//end silenceStdout
+
+}//end BenchDatabase
@@ -0,0 +1,133 @@
+/*
+ * Template JAVA User Interface
+ * =============================
+ *
+ * Database Management Systems
+ * Department of Computer Science &amp; Engineering
+ * University of California - Riverside
+ *
+ * Target DBMS: 'Postgres'
+ *
+ */
+
+package cafe.bench;
+
+import cafe.Cafe;
+import cafe.ConnectionPool;
+import cafe.MenuItem;
+import cafe.UserSession;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput and latency percentiles of the Cafe data-access flows against
+ * a seeded database. Each benchmark thread is one logged-in session with
+ * its own pooled connection. Add -prof gc for allocation rates and -t N
+ * for concurrent sessions:
+ *
+ *   java -Dcafe.db=mydb -jar bench/target/benchmarks.jar CafeFlows -prof gc -t 4
+ *
+ * addOrder commits real orders; reseed between runs if that matters.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class CafeFlowsBenchmark {
+
+   @State(Scope.Benchmark)
+   public static class Shared {
+      ConnectionPool pool;
+      Cafe esql;
+      List<String[]> users;
+      List<String> items;
+
+      @Setup(Level.Trial)
+      public void open () throws SQLException {
+         BenchDatabase.silenceStdout();
+         pool = BenchDatabase.openPool(Integer.getInteger("cafe.pool.max", 64));
+         esql = new Cafe(pool);
+         users = esql.executeQueryAndMap(
+            "SELECT login, password FROM Users WHERE type = 'Customer' LIMIT 1000",
+            rs -> new String[] { rs.getString(1).stripTrailing(), rs.getString(2).stripTrailing() });
+         items = new ArrayList<String>();
+         for (MenuItem item : esql.getMenu().all())
+            items.add(item.getItemName());
+         if (users.isEmpty() || items.isEmpty())
+            throw new IllegalStateException("benchmark database is not seeded, run bench/seed.sh");
+      }
+
+      @TearDown(Level.Trial)
+      public void close () {
+         pool.close();
+      }
+   }//end Shared
+
+   @State(Scope.Thread)
+   public static class Session {
+      Cafe esql;
+      String login;
+      String password;
+
+      @Setup(Level.Trial)
+      public void begin (Shared shared) throws SQLException {
+         esql = shared.esql;
+         esql.beginSession();
+         String[] user = shared.users.get(ThreadLocalRandom.current().nextInt(shared.users.size()));
+         login = user[0];
+         password = user[1];
+      }
+
+      @TearDown(Level.Trial)
+      public void end () {
+         esql.endSession();
+      }
+   }//end Session
+
+   @Benchmark
+   public UserSession logIn (Session session) throws SQLException {
+      return Cafe.Authenticate(session.esql, session.login, session.password);
+   }
+
+   @Benchmark
+   public int addOrder (Shared shared, Session session) throws SQLException {
+      Map<String, Float> cart = new LinkedHashMap<String, Float>();
+      ThreadLocalRandom random = ThreadLocalRandom.current();
+      while (cart.size() < 3) {
+         MenuItem item = shared.esql.getMenu().find(shared.items.get(random.nextInt(shared.items.size())));
+         cart.put(item.getItemName(), item.getPrice());
+      }
+      return Cafe.PlaceOrder(session.esql, session.login, cart);
+   }
+
+   @Benchmark
+   public int viewOrderHistory (Session session) throws SQLException {
+      return Cafe.PrintOrderHistory(session.esql, session.login);
+   }
+
+   @Benchmark
+   public void viewCurrentOrder (Session session) {
+      Cafe.ViewCurrentOrder(session.esql);
+   }
+
+}//end CafeFlowsBenchmark
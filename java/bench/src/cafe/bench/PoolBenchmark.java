@@ -0,0 +1,124 @@
+/*
+ * Template JAVA User Interface
+ * =============================
+ *
+ * Database Management Systems
+ * Department of Computer Science &amp; Engineering
+ * University of California - Riverside
+ *
+ * Target DBMS: 'Postgres'
+ *
+ */
+
+package cafe.bench;
+
+import cafe.Cafe;
+import cafe.ConnectionPool;
+
+import java.sql.DriverManager;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares N concurrent simulated Cafe sessions sharing the single
+ * connection the old Cafe constructor opened with the same sessions running
+ * on a ConnectionPool.
+ *
+ * Usage: java -cp bench/target/benchmarks.jar cafe.bench.PoolBenchmark
+ *             <dbname> <port> [sessions] [actionsPerSession] [poolMax]
+ */
+public class PoolBenchmark {
+
+   // the read-mostly statements a browsing customer issues in one action
+   private static final String[] SESSION_QUERIES = {
+      "SELECT itemName, type, price, description FROM Menu WHERE type='Drinks'",
+      "SELECT price FROM Menu WHERE itemName='Coffee'",
+      "SELECT orderid FROM Orders WHERE login='Admin' ORDER BY orderid desc LIMIT 5",
+      "SELECT orderid, timeStampRecieved FROM Orders WHERE paid=false AND timeStampRecieved>=NOW()-'1 day'::INTERVAL"
+   };
+
+   private interface Session {
+      void run (int actions) throws SQLException;
+   }
+
+   public static void main (String[] args) throws Exception {
+      if (args.length < 2) {
+         System.err.println("Usage: java PoolBenchmark <dbname> <port> [sessions] [actionsPerSession] [poolMax]");
+         return;
+      }
+      String url = "jdbc:postgresql://127.0.0.1:" + args[1] + "/" + args[0];
+      int sessions = args.length > 2 ? Integer.parseInt(args[2]) : 32;
+      int actions = args.length > 3 ? Integer.parseInt(args[3]) : 200;
+      int poolMax = args.length > 4 ? Integer.parseInt(args[4]) : 10;
+
+      Class.forName("org.postgresql.Driver");
+
+      // one shared connection: every session serializes on it
+      final Connection shared = DriverManager.getConnection(url);
+      run("single connection", sessions, actions, n -> {
+         for (int i = 0; i < n; ++i) {
+            synchronized (shared) {
+               runAction(shared);
+            }
+         }
+      });
+      shared.close();
+
+      // pooled: each session pins a pooled connection the way Cafe.main does
+      ConnectionPool pool = new ConnectionPool(url, Math.min(2, poolMax), poolMax, 60000L, 30000L);
+      final Cafe esql = new Cafe(pool);
+      run("pool(max=" + poolMax + ")", sessions, actions, n -> {
+         esql.beginSession();
+         try {
+            for (int i = 0; i < n; ++i)
+               for (String q : SESSION_QUERIES)
+                  esql.executeQuery(q);
+         }finally {
+            esql.endSession();
+         }
+      });
+      System.out.println(pool.stats());
+      pool.close();
+   }//end main
+
+   private static void runAction (Connection conn) throws SQLException {
+      for (String q : SESSION_QUERIES) {
+         Statement stmt = conn.createStatement();
+         ResultSet rs = stmt.executeQuery(q);
+         rs.next();
+         stmt.close();
+      }
+   }//end runAction
+
+   private static void run (String label, int sessions, int actions, Session session) throws InterruptedException {
+      ExecutorService workers = Executors.newFixedThreadPool(sessions);
+      CountDownLatch done = new CountDownLatch(sessions);
+      long start = System.nanoTime();
+      for (int s = 0; s < sessions; ++s) {
+         workers.execute(() -> {
+            try {
+               session.run(actions);
+            }catch (SQLException e) {
+               System.err.println(e.getMessage());
+            }finally {
+               done.countDown();
+            }
+         });
+      }
+      done.await();
+      long elapsed = System.nanoTime() - start;
+      workers.shutdown();
+      workers.awaitTermination(10, TimeUnit.SECONDS);
+
+      long ops = (long) sessions * actions;
+      System.out.printf("%-20s sessions=%d actions=%d elapsed=%.1fms throughput=%.0f actions/s%n",
+                        label, sessions, ops, elapsed / 1e6, ops / (elapsed / 1e9));
+   }//end run
+
+}//end PoolBenchmark
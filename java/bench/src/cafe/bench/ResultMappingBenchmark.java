@@ -0,0 +1,123 @@
+/*
+ * Template JAVA User Interface
+ * =============================
+ *
+ * Database Management Systems
+ * Department of Computer Science &amp; Engineering
+ * University of California - Riverside
+ *
+ * Target DBMS: 'Postgres'
+ *
+ */
+
+package cafe.bench;
+
+import cafe.Cafe;
+import cafe.ColumnarResult;
+import cafe.ConnectionPool;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Reads a 1M-row ItemStatus-shaped result three ways: executeQueryAndReturnResult
+ * (List of String lists), executeQueryAndMap with typed getters, and
+ * executeQueryAndReturnColumns. Run with -prof gc; gc.alloc.rate.norm
+ * divided by rows gives bytes allocated per row.
+ *
+ *   java -Dcafe.db=mydb -jar bench/target/benchmarks.jar ResultMapping -prof gc
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResultMappingBenchmark {
+
+   // orderid, itemName, lastUpdated, status, price for every generated row
+   private static final String QUERY =
+      "SELECT g AS orderid, 'Coffee'::char(50) AS itemName, NOW() - g * '1 second'::interval AS lastUpdated, "
+      + "(CASE g % 3 WHEN 0 THEN 'Finished' WHEN 1 THEN 'Started' ELSE 'Hasn''t Started' END)::char(20) AS status, "
+      + "(g % 10)::real + 0.99 AS price "
+      + "FROM generate_series(1, ?) g";
+
+   private static final class Item {
+      final int orderid;
+      final String itemName;
+      final long lastUpdated;
+      final String status;
+      final float price;
+
+      Item(int orderid, String itemName, long lastUpdated, String status, float price) {
+         this.orderid = orderid;
+         this.itemName = itemName;
+         this.lastUpdated = lastUpdated;
+         this.status = status;
+         this.price = price;
+      }
+   }//end Item
+
+   @Param("1000000")
+   public int rows;
+
+   private ConnectionPool pool;
+   private Cafe esql;
+
+   @Setup(Level.Trial)
+   public void open () throws SQLException {
+      pool = BenchDatabase.openPool(1);
+      esql = new Cafe(pool);
+      esql.beginSession();
+   }
+
+   @TearDown(Level.Trial)
+   public void close () {
+      esql.endSession();
+      pool.close();
+   }
+
+   @Benchmark
+   public float stringLists () throws SQLException {
+      float total = 0;
+      for (List<String> row : esql.executeQueryAndReturnResult(QUERY, rows))
+         total += Float.parseFloat(row.get(4));
+      return total;
+   }
+
+   @Benchmark
+   public float rowMapper () throws SQLException {
+      List<Item> result = esql.executeQueryAndMap(QUERY,
+         rs -> new Item(rs.getInt(1), rs.getString(2), rs.getTimestamp(3).getTime(), rs.getString(4), rs.getFloat(5)),
+         rows);
+      float total = 0;
+      for (Item item : result)
+         total += item.price;
+      return total;
+   }
+
+   @Benchmark
+   public float columnar () throws SQLException {
+      ColumnarResult result = esql.executeQueryAndReturnColumns(QUERY, rows);
+      float total = 0;
+      for (int r = 0; r < result.getRowCount(); ++r)
+         total += result.getFloat(r, 4);
+      return total;
+   }
+
+}//end ResultMappingBenchmark
@@ -5,9 +5,9 @@ DIR="$( cd "$( dirname "${BASH_SOURCE[0]}" )" && pwd )"
 set -e
 
 # compile the java program
-javac -d $DIR/../classes $DIR/../src/Cafe.java
+javac -d $DIR/../classes $DIR/../src/cafe/*.java
 
 #run the java program
 #Use your database name and portss
-java -cp $DIR/../classes:$CLASSPATH Cafe mydb $PGPORT
+java -cp $DIR/../classes:$CLASSPATH cafe.Cafe mydb $PGPORT
 
@@ -0,0 +1,74 @@
+/*
+ * Template JAVA User Interface
+ * =============================
+ *
+ * Database Management Systems
+ * Department of Computer Science &amp; Engineering
+ * University of California - Riverside
+ *
+ * Target DBMS: 'Postgres'
+ *
+ */
+
+package cafe;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * One immutable unpaid order and the status of each of its items. A change
+ * replaces the order in ActiveOrders.
+ *
+ */
+public class ActiveOrder {
+
+   public static final String FINISHED = "Finished";
+
+   private final int _orderid;
+   private final LocalDateTime _received;
+   private final Map<String, String> _items;
+
+   public ActiveOrder (int orderid, LocalDateTime received, Map<String, String> items) {
+      this._orderid = orderid;
+      this._received = received;
+      this._items = Collections.unmodifiableMap(new LinkedHashMap<String, String>(items));
+   }//end ActiveOrder
+
+   public int getOrderid () { return _orderid; }
+   public LocalDateTime getReceived () { return _received; }
+
+   /**
+    * @return item name to status, in the order the items were added
+    */
+   public Map<String, String> getItems () { return _items; }
+
+   /**
+    * @return true when the order has items, every one finished, and only
+    *         payment is missing
+    */
+   public boolean isFinished () {
+      if (_items.isEmpty())
+         return false;
+      for (String status : _items.values())
+         if (!FINISHED.equals(status))
+            return false;
+      return true;
+   }//end isFinished
+
+   /**
+    * @param itemName the item added or changed
+    * @param status its status, or null when the item was removed
+    * @return a copy of this order with the change applied
+    */
+   public ActiveOrder withItem (String itemName, String status) {
+      Map<String, String> items = new LinkedHashMap<String, String>(_items);
+      if (status == null)
+         items.remove(itemName);
+      else
+         items.put(itemName, status);
+      return new ActiveOrder(_orderid, _received, items);
+   }//end withItem
+
+}//end ActiveOrder
@@ -0,0 +1,314 @@
+/*
+ * Template JAVA User Interface
+ * =============================
+ *
+ * Database Management Systems
+ * Department of Computer Science &amp; Engineering
+ * University of California - Riverside
+ *
+ * Target DBMS: 'Postgres'
+ *
+ */
+
+package cafe;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+
+/**
+ * In-memory index of the active orders, the unpaid orders of the last day
+ * that View Current Orders lists, by orderid and in arrival order. It is
+ * read once from the database and then kept current by the write paths of
+ * this client (PlaceOrder, EmployeeUpdateOrder) and, when it runs, by the
+ * OrderFeed for every other client. Orders whose items are all finished
+ * are kept but not listed. Readers never lock; every change replaces one
+ * immutable ActiveOrder. Changes made while a reload reads the tables are
+ * replayed on the reloaded index, so none is lost to the swap.
+ *
+ */
+public class ActiveOrders {
+
+   // orders stay active for this long unless paid first
+   public static final long ACTIVE_HOURS = 24;
+
+   private static final String SELECT_ACTIVE =
+      "SELECT O.orderid, O.timeStampRecieved, I.itemName, I.status "
+    + "FROM Orders O LEFT JOIN ItemStatus I ON I.orderid = O.orderid AND I.orderReceived = O.timeStampRecieved "
+    + "AND I.orderReceived >= LOCALTIMESTAMP - interval '" + ACTIVE_HOURS + " hours' "
+    + "WHERE O.paid = false AND O.timeStampRecieved >= LOCALTIMESTAMP - interval '" + ACTIVE_HOURS + " hours'";
+
+   // position of an order in arrival order
+   private static final class Arrival implements Comparable<Arrival> {
+      final LocalDateTime received;
+      final int orderid;
+
+      Arrival(ActiveOrder order) {
+         this.received = order.getReceived();
+         this.orderid = order.getOrderid();
+      }
+
+      public int compareTo(Arrival other) {
+         int c = received.compareTo(other.received);
+         return c != 0 ? c : Integer.compare(orderid, other.orderid);
+      }
+   }//end Arrival
+
+   // both views of one load; a reload replaces them together
+   private static final class Index {
+      final Map<Integer, ActiveOrder> byId = new ConcurrentHashMap<Integer, ActiveOrder>();
+      final ConcurrentSkipListMap<Arrival, Integer> byArrival = new ConcurrentSkipListMap<Arrival, Integer>();
+   }//end Index
+
+   private volatile Index _index = new Index();
+
+   // guards _pending and the swap of _index
+   private final Object _lock = new Object();
+   // one reload at a time
+   private final Object _reloading = new Object();
+   // changes made while a reload runs, or null when none runs
+   private List<Consumer<Index>> _pending = null;
+
+   /**
+    * Replaces the contents with the active orders in the database.
+    *
+    * @param esql the database the orders are read from
+    * @throws java.sql.SQLException when the orders cannot be read
+    */
+   public void reload (Cafe esql) throws SQLException {
+      synchronized (_reloading) {
+         synchronized (_lock) {
+            _pending = new ArrayList<Consumer<Index>>();
+         }
+         Index index = new Index();
+         try {
+            for (ActiveOrder order : read(esql, ""))
+               add(index, order);
+         }catch (SQLException | RuntimeException e) {
+            synchronized (_lock) {
+               _pending = null;
+            }
+            throw e;
+         }
+         synchronized (_lock) {
+            // the read may or may not have seen these; each one sets a final
+            // value, so applying it again is harmless
+            for (Consumer<Index> change : _pending)
+               change.accept(index);
+            _pending = null;
+            _index = index;
+         }
+      }
+   }//end reload
+
+   /**
+    * Re-reads one order after a change the index cannot follow by itself,
+    * such as an order marked unpaid again.
+    *
+    * @param esql the database the order is read from
+    * @param orderid the order that changed
+    * @throws java.sql.SQLException when the order cannot be read
+    */
+   public void refresh (Cafe esql, int orderid) throws SQLException {
+      List<ActiveOrder> rows = read(esql, " AND O.orderid = ?", orderid);
+      ActiveOrder order = rows.isEmpty() ? null : rows.get(0);
+      change(index -> {
+         removeFrom(index, orderid);
+         if (order != null)
+            add(index, order);
+      });
+   }//end refresh
+
+   /**
+    * @param orderid the order to look up
+    * @return the order, or null when it is not active
+    */
+   public ActiveOrder find (int orderid) {
+      ActiveOrder order = _index.byId.get(orderid);
+      return order != null && isActive(order, cutoff()) && !order.isFinished() ? order : null;
+   }//end find
+
+   /**
+    * The time an order was received, its partition key, so a change to a
+    * known order touches one weekly partition instead of all of them.
+    *
+    * @param orderid the order to look up
+    * @return the order's time, or null when the order is not in the index
+    */
+   public LocalDateTime received (int orderid) {
+      ActiveOrder order = _index.byId.get(orderid);
+      return order != null ? order.getReceived() : null;
+   }//end received
+
+   /**
+    * @return the active orders that still have items to make, oldest first
+    */
+   public List<ActiveOrder> inArrivalOrder () {
+      Index index = _index;
+      LocalDateTime cutoff = cutoff();
+      // expired orders sit at the head
+      Iterator<Map.Entry<Arrival, Integer>> it = index.byArrival.entrySet().iterator();
+      while (it.hasNext()) {
+         Map.Entry<Arrival, Integer> e = it.next();
+         if (!e.getKey().received.isBefore(cutoff))
+            break;
+         it.remove();
+         index.byId.remove(e.getValue());
+      }//end while
+      List<ActiveOrder> orders = new ArrayList<ActiveOrder>();
+      for (Integer orderid : index.byArrival.values()) {
+         ActiveOrder order = index.byId.get(orderid);
+         if (order != null && !order.isFinished())
+            orders.add(order);
+      }
+      return orders;
+   }//end inArrivalOrder
+
+   public int size () {
+      return _index.byId.size();
+   }//end size
+
+   /**
+    * Adds an order that was just placed, unless it is known already.
+    *
+    * @param order the new order
+    * @return true when the order was not known
+    */
+   public boolean placed (ActiveOrder order) {
+      boolean[] added = new boolean[1];
+      change(index -> added[0] = add(index, order));
+      return added[0];
+   }//end placed
+
+   /**
+    * Records an item added to an order or a status change.
+    *
+    * @param orderid the order
+    * @param itemName the item
+    * @param status its new status
+    */
+   public void itemStatus (int orderid, String itemName, String status) {
+      change(index -> index.byId.computeIfPresent(orderid, (k, order) -> order.withItem(itemName, status)));
+   }//end itemStatus
+
+   /**
+    * Records an item removed from an order.
+    *
+    * @param orderid the order
+    * @param itemName the removed item
+    */
+   public void itemRemoved (int orderid, String itemName) {
+      change(index -> index.byId.computeIfPresent(orderid, (k, order) -> order.withItem(itemName, null)));
+   }//end itemRemoved
+
+   /**
+    * Drops an order that was paid or deleted.
+    *
+    * @param orderid the order
+    */
+   public void remove (int orderid) {
+      change(index -> removeFrom(index, orderid));
+   }//end remove
+
+   /**
+    * Compares the index with the Orders and ItemStatus tables. Changes
+    * committed while the check runs may show up as differences.
+    *
+    * @param esql the database to compare with
+    * @return one line per difference, empty when both agree
+    * @throws java.sql.SQLException when the tables cannot be read
+    */
+   public List<String> check (Cafe esql) throws SQLException {
+      Map<Integer, ActiveOrder> expected = new LinkedHashMap<Integer, ActiveOrder>();
+      for (ActiveOrder order : read(esql, ""))
+         expected.put(order.getOrderid(), order);
+      // finished orders too, which the listings leave out
+      Map<Integer, ActiveOrder> actual = new LinkedHashMap<Integer, ActiveOrder>();
+      LocalDateTime cutoff = cutoff();
+      for (ActiveOrder order : _index.byId.values())
+         if (isActive(order, cutoff))
+            actual.put(order.getOrderid(), order);
+
+      List<String> differences = new ArrayList<String>();
+      for (ActiveOrder order : expected.values()) {
+         ActiveOrder mine = actual.get(order.getOrderid());
+         if (mine == null)
+            differences.add("order " + order.getOrderid() + " is missing");
+         else if (!mine.getReceived().equals(order.getReceived()))
+            differences.add("order " + order.getOrderid() + " received " + mine.getReceived()
+                            + ", table has " + order.getReceived());
+         else if (!mine.getItems().equals(order.getItems()))
+            differences.add("order " + order.getOrderid() + " items " + mine.getItems()
+                            + ", tables have " + order.getItems());
+      }
+      for (ActiveOrder mine : actual.values())
+         if (!expected.containsKey(mine.getOrderid()))
+            differences.add("order " + mine.getOrderid() + " is not active in the tables");
+      return differences;
+   }//end check
+
+   // applies a change to the index, and again to the next one when a reload runs
+   private void change (Consumer<Index> change) {
+      Index index;
+      synchronized (_lock) {
+         if (_pending != null)
+            _pending.add(change);
+         index = _index;
+      }
+      change.accept(index);
+   }//end change
+
+   private static void removeFrom (Index index, int orderid) {
+      ActiveOrder order = index.byId.remove(orderid);
+      if (order != null)
+         index.byArrival.remove(new Arrival(order));
+   }//end removeFrom
+
+   private static boolean add (Index index, ActiveOrder order) {
+      if (index.byId.putIfAbsent(order.getOrderid(), order) != null)
+         return false;
+      index.byArrival.put(new Arrival(order), order.getOrderid());
+      return true;
+   }//end add
+
+   private static boolean isActive (ActiveOrder order, LocalDateTime cutoff) {
+      return !order.getReceived().isBefore(cutoff);
+   }//end isActive
+
+   private static LocalDateTime cutoff () {
+      return LocalDateTime.now().minusHours(ACTIVE_HOURS);
+   }//end cutoff
+
+   // active orders matching an extra condition, with their items
+   private static List<ActiveOrder> read (Cafe esql, String condition, Object... params) throws SQLException {
+      List<Object[]> rows = esql.executeQueryAndMap(SELECT_ACTIVE + condition + " ORDER BY O.orderid",
+         rs -> new Object[] { rs.getInt(1), rs.getObject(2, LocalDateTime.class), rs.getString(3), rs.getString(4) },
+         params);
+      List<ActiveOrder> orders = new ArrayList<ActiveOrder>();
+      int orderid = -1;
+      LocalDateTime received = null;
+      Map<String, String> items = null;
+      for (Object[] row : rows) {
+         if ((Integer) row[0] != orderid) {
+            if (items != null)
+               orders.add(new ActiveOrder(orderid, received, items));
+            orderid = (Integer) row[0];
+            received = (LocalDateTime) row[1];
+            items = new LinkedHashMap<String, String>();
+         }
+         if (row[2] != null)
+            items.put((String) row[2], (String) row[3]);
+      }//end for
+      if (items != null)
+         orders.add(new ActiveOrder(orderid, received, items));
+      return orders;
+   }//end read
+
+}//end ActiveOrders
@@ -0,0 +1,558 @@
+/*
+ * Template JAVA User Interface
+ * =============================
+ *
+ * Database Management Systems
+ * Department of Computer Science &amp; Engineering
+ * University of California - Riverside
+ *
+ * Target DBMS: 'Postgres'
+ *
+ */
+
+package cafe;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+
+/**
+ * Loads the Cafe tables from ;-delimited files in a client-side directory
+ * by streaming them through COPY FROM STDIN. Tables that do not reference
+ * each other are loaded at the same time, and large files are split at
+ * line boundaries and copied over several connections. Secondary indexes
+ * are dropped before the load and rebuilt afterwards, and the orderid
+ * sequence is moved past the loaded orders.
+ *
+ * A file is matched to a table by name, ignoring case (menu.csv, users.csv,
+ * orders.csv, itemStatus.csv); missing files are skipped. Every chunk is
+ * copied in its own transaction, so a failed load should be rerun with
+ * --truncate, which also empties the tables referencing the loaded ones.
+ * Loaded favItems lists are moved into UserFavorites.
+ *
+ * Usage: java cafe.BulkLoader <dbname> <port> [dataDir] [--threads N] [--truncate]
+ */
+public class BulkLoader {
+
+   // load phases; a table only references tables of earlier phases
+   private static final String[][] PHASES = {
+      { "Menu", "Users", "Orders" },
+      { "ItemStatus" }
+   };
+
+   // the files hold every column but ItemStatus.price, which is filled in by
+   // the itemstatus_price trigger
+   static final String ITEMSTATUS_COLUMNS = "(orderid, itemName, lastUpdated, status, comments, orderReceived)";
+
+   // field holding the order's time, the partition key, in the partitioned tables' files
+   private static final Map<String, Integer> TIME_FIELDS = Map.of("Orders", 3, "ItemStatus", 5);
+
+   // files are split into chunks of at least this size
+   private static final long MIN_CHUNK_BYTES = 16L << 20;
+
+   private static final int BUFFER_SIZE = 1 << 16;
+
+   private final ConnectionPool _pool;
+   private final ExecutorService _workers;
+   private final int _threads;
+
+   /**
+    * @param pool connections to load over, at least one per thread
+    * @param threads number of COPY streams running at once
+    */
+   public BulkLoader (ConnectionPool pool, int threads) {
+      this._pool = pool;
+      this._threads = threads;
+      this._workers = Executors.newFixedThreadPool(threads);
+   }//end BulkLoader
+
+   public static void main (String[] args) throws Exception {
+      if (args.length < 2) {
+         System.err.println("Usage: java cafe.BulkLoader <dbname> <port> [dataDir] [--threads N] [--truncate]");
+         return;
+      }
+      File dir = new File("../project/data");
+      int threads = Runtime.getRuntime().availableProcessors();
+      boolean truncate = false;
+      for (int i = 2; i < args.length; ++i) {
+         if (args[i].equals("--threads"))
+            threads = Integer.parseInt(args[++i]);
+         else if (args[i].equals("--truncate"))
+            truncate = true;
+         else
+            dir = new File(args[i]);
+      }
+
+      Class.forName("org.postgresql.Driver");
+      String url = "jdbc:postgresql://127.0.0.1:" + args[1] + "/" + args[0];
+      ConnectionPool pool = new ConnectionPool(url, 1, threads, 60000L, 600000L);
+      BulkLoader loader = new BulkLoader(pool, threads);
+      try {
+         loader.load(dir, truncate);
+      }finally {
+         loader.close();
+         pool.close();
+      }
+   }//end main
+
+   /**
+    * Loads every table with a file in the directory and prints rows/s.
+    *
+    * @param dir directory holding the table files
+    * @param truncate empty the loaded tables first
+    * @return rows loaded per table
+    * @throws java.lang.Exception when a file cannot be read or a COPY fails
+    */
+   public Map<String, Long> load (File dir, boolean truncate) throws Exception {
+      Map<String, File> files = new LinkedHashMap<String, File>();
+      for (String[] phase : PHASES)
+         for (String table : phase) {
+            File f = findFile(dir, table);
+            if (f != null)
+               files.put(table, f);
+         }
+      if (files.isEmpty())
+         throw new IOException("No table files found in " + dir.getAbsolutePath());
+
+      long start = System.nanoTime();
+      if (truncate)
+         execute("TRUNCATE " + String.join(", ", files.keySet()) + " CASCADE");
+      Map<String, String> indexes = dropSecondaryIndexes(files.keySet());
+
+      // every week with orders in the files needs its partitions
+      Connection conn = _pool.borrow();
+      try {
+         if (hasFunction(conn, "ensure_partitions")) {
+            String[] range = null;
+            for (Map.Entry<String, Integer> e : TIME_FIELDS.entrySet())
+               if (files.containsKey(e.getKey()))
+                  range = widen(range, timeRange(files.get(e.getKey()), e.getValue()));
+            if (range != null)
+               ensurePartitions(conn, range[0], range[1]);
+         }
+      }finally {
+         _pool.release(conn);
+      }
+
+      // orders.csv already has the totals the ItemStatus trigger would add
+      boolean totals = files.containsKey("ItemStatus") && setTotalsMaintained(false);
+      // and the order feed would get one notification per row
+      List<String> unpublished = new ArrayList<String>();
+      for (String table : new String[] { "Orders", "ItemStatus" })
+         if (files.containsKey(table) && setFeedPublished(table, false))
+            unpublished.add(table);
+      Map<String, Long> rows = new LinkedHashMap<String, Long>();
+      try {
+         for (String[] phase : PHASES) {
+            Map<String, List<Future<Long>>> chunks = new LinkedHashMap<String, List<Future<Long>>>();
+            for (String table : phase) {
+               File f = files.get(table);
+               if (f != null)
+                  chunks.put(table, copyChunks(table, f));
+            }
+            for (Map.Entry<String, List<Future<Long>>> e : chunks.entrySet()) {
+               long n = 0;
+               for (Long count : waitAll(e.getValue()))
+                  n += count;
+               rows.put(e.getKey(), n);
+            }
+         }//end for
+      }finally {
+         if (totals)
+            setTotalsMaintained(true);
+         for (String table : unpublished)
+            setFeedPublished(table, true);
+      }
+      long loaded = System.nanoTime();
+
+      // rebuild the dropped indexes side by side
+      List<Future<Long>> builds = new ArrayList<Future<Long>>();
+      for (String ddl : indexes.values())
+         builds.add(_workers.submit(() -> { execute(ddl); return 0L; }));
+      waitAll(builds);
+      checkIndexes(indexes.keySet());
+
+      if (rows.containsKey("Users") && hasFunction("migrate_favitems"))
+         execute("SELECT migrate_favitems()");
+      if (rows.containsKey("Orders"))
+         execute("SELECT setval(pg_get_serial_sequence('orders', 'orderid'), "
+               + "COALESCE(max(orderid), 0) + 1, false) FROM Orders");
+      execute("ANALYZE " + String.join(", ", rows.keySet()));
+      long done = System.nanoTime();
+
+      long total = 0;
+      for (Map.Entry<String, Long> e : rows.entrySet()) {
+         System.out.printf("%-12s %12d rows%n", e.getKey(), e.getValue());
+         total += e.getValue();
+      }
+      double copySeconds = (loaded - start) / 1e9;
+      System.out.printf("Copied %d rows in %.2fs (%.0f rows/s) with %d streams%n",
+                        total, copySeconds, total / copySeconds, _threads);
+      System.out.printf("Rebuilt %d indexes and analyzed in %.2fs, %.2fs in total%n",
+                        indexes.size(), (done - loaded) / 1e9, (done - start) / 1e9);
+      return rows;
+   }//end load
+
+   /**
+    * Stops the worker threads.
+    */
+   public void close () {
+      _workers.shutdownNow();
+   }//end close
+
+   private static File findFile (File dir, String table) {
+      File[] entries = dir.listFiles();
+      if (entries == null)
+         return null;
+      for (File f : entries)
+         if (f.isFile() && f.getName().equalsIgnoreCase(table + ".csv"))
+            return f;
+      return null;
+   }//end findFile
+
+   // splits the file at line boundaries and copies every piece on its own stream
+   private List<Future<Long>> copyChunks (String table, File f) throws IOException {
+      long[] bounds = splitLines(f);
+      String columns = table.equals("ItemStatus") ? " " + ITEMSTATUS_COLUMNS : "";
+      String sql = "COPY " + table + columns + " FROM STDIN WITH (DELIMITER ';')";
+      List<Future<Long>> futures = new ArrayList<Future<Long>>();
+      for (int k = 0; k + 1 < bounds.length; ++k) {
+         long from = bounds[k], to = bounds[k + 1];
+         if (from < to)
+            futures.add(_workers.submit(() -> copyRange(sql, f, from, to)));
+      }
+      return futures;
+   }//end copyChunks
+
+   // offsets that split the file into one piece per stream, at line starts
+   private long[] splitLines (File f) throws IOException {
+      long size = f.length();
+      int parts = (int) Math.max(1, Math.min(_threads, size / MIN_CHUNK_BYTES));
+      long[] bounds = new long[parts + 1];
+      bounds[parts] = size;
+      try (FileChannel ch = FileChannel.open(f.toPath(), StandardOpenOption.READ)) {
+         ByteBuffer one = ByteBuffer.allocate(1);
+         for (int k = 1; k < parts; ++k) {
+            long pos = Math.max(bounds[k - 1], size * k / parts);
+            // move forward to the byte after the next newline
+            while (pos < size) {
+               one.clear();
+               ch.read(one, pos++);
+               if (one.get(0) == '\n')
+                  break;
+            }
+            bounds[k] = pos;
+         }
+      }
+      return bounds;
+   }//end splitLines
+
+   // smallest and largest value of a timestamp field, scanning pieces in parallel;
+   // "yyyy-MM-dd HH:mm:ss" values order the same as their bytes
+   private String[] timeRange (File f, int field) throws Exception {
+      long[] bounds = splitLines(f);
+      List<Future<String[]>> futures = new ArrayList<Future<String[]>>();
+      for (int k = 0; k + 1 < bounds.length; ++k) {
+         long from = bounds[k], to = bounds[k + 1];
+         futures.add(_workers.submit(() -> scanRange(f, from, to, field)));
+      }
+      String[] range = null;
+      try {
+         for (Future<String[]> piece : futures)
+            range = widen(range, piece.get());
+      }catch (ExecutionException e) {
+         if (e.getCause() instanceof Exception)
+            throw (Exception) e.getCause();
+         throw e;
+      }
+      return range;
+   }//end timeRange
+
+   private static String[] scanRange (File f, long from, long to, int field) throws IOException {
+      byte[][] range = new byte[2][];
+      byte[] value = new byte[32];
+      int length = 0, current = 0;
+      try (FileChannel ch = FileChannel.open(f.toPath(), StandardOpenOption.READ)) {
+         ByteBuffer buf = ByteBuffer.allocate(BUFFER_SIZE);
+         long pos = from;
+         while (pos < to) {
+            buf.clear();
+            buf.limit((int) Math.min(BUFFER_SIZE, to - pos));
+            int n = ch.read(buf, pos);
+            if (n <= 0)
+               break;
+            byte[] bytes = buf.array();
+            for (int i = 0; i < n; ++i) {
+               byte b = bytes[i];
+               if (b == '\n') {
+                  keep(range, value, length);
+                  length = 0;
+                  current = 0;
+               }
+               else if (b == ';')
+                  ++current;
+               else if (current == field && length < value.length)
+                  value[length++] = b;
+            }
+            pos += n;
+         }
+      }
+      // the last line may have no newline
+      keep(range, value, length);
+      if (range[0] == null)
+         return null;
+      return new String[] { new String(range[0], StandardCharsets.US_ASCII),
+                            new String(range[1], StandardCharsets.US_ASCII) };
+   }//end scanRange
+
+   private static void keep (byte[][] range, byte[] value, int length) {
+      if (length == 0)
+         return;
+      if (range[0] == null || Arrays.compare(value, 0, length, range[0], 0, range[0].length) < 0)
+         range[0] = Arrays.copyOf(value, length);
+      if (range[1] == null || Arrays.compare(value, 0, length, range[1], 0, range[1].length) > 0)
+         range[1] = Arrays.copyOf(value, length);
+   }//end keep
+
+   private static String[] widen (String[] range, String[] other) {
+      if (range == null)
+         return other;
+      if (other == null)
+         return range;
+      return new String[] { range[0].compareTo(other[0]) <= 0 ? range[0] : other[0],
+                            range[1].compareTo(other[1]) >= 0 ? range[1] : other[1] };
+   }//end widen
+
+   /**
+    * Creates the weekly Orders and ItemStatus partitions covering a time
+    * range, when the database is partitioned (create_partitions.sql).
+    *
+    * @param conn the connection to use
+    * @param from earliest order time, as timestamp text
+    * @param to latest order time, as timestamp text
+    * @return false when the database has no partition functions
+    * @throws java.sql.SQLException when the partitions cannot be created
+    */
+   static boolean ensurePartitions (Connection conn, String from, String to) throws SQLException {
+      if (!hasFunction(conn, "ensure_partitions"))
+         return false;
+      try (PreparedStatement ps = conn.prepareStatement("SELECT ensure_partitions(?::timestamp, ?::timestamp)")) {
+         ps.setString(1, from);
+         ps.setString(2, to);
+         ps.executeQuery().close();
+      }
+      return true;
+   }//end ensurePartitions
+
+   private long copyRange (String sql, File f, long from, long to) throws SQLException, IOException {
+      Connection conn = _pool.borrow();
+      try (FileChannel ch = FileChannel.open(f.toPath(), StandardOpenOption.READ)) {
+         CopyIn copy = conn.unwrap(PGConnection.class).getCopyAPI().copyIn(sql);
+         try {
+            ByteBuffer buf = ByteBuffer.allocate(BUFFER_SIZE);
+            long pos = from;
+            while (pos < to) {
+               buf.clear();
+               buf.limit((int) Math.min(BUFFER_SIZE, to - pos));
+               int n = ch.read(buf, pos);
+               if (n < 0)
+                  break;
+               copy.writeToCopy(buf.array(), 0, n);
+               pos += n;
+            }
+            return copy.endCopy();
+         }finally {
+            if (copy.isActive())
+               copy.cancelCopy();
+         }
+      }finally {
+         _pool.release(conn);
+      }
+   }//end copyRange
+
+   // drops the non-constraint indexes of the tables and returns their definitions by name;
+   // pg_indexes defines an index of a partitioned table ON ONLY the parent, which would
+   // rebuild it without the partitions' indexes that DROP INDEX removed with it
+   private Map<String, String> dropSecondaryIndexes (Iterable<String> tables) throws SQLException {
+      List<String> names = new ArrayList<String>();
+      for (String table : tables)
+         names.add(table.toLowerCase());
+      Map<String, String> ddl = new LinkedHashMap<String, String>();
+      Connection conn = _pool.borrow();
+      try {
+         try (PreparedStatement ps = conn.prepareStatement(
+                 "SELECT i.indexname, regexp_replace(i.indexdef, ' ON ONLY ', ' ON ') FROM pg_indexes i "
+               + "WHERE i.schemaname = current_schema() AND i.tablename = ANY (?) "
+               + "AND NOT EXISTS (SELECT 1 FROM pg_constraint c WHERE c.conname = i.indexname)")) {
+            ps.setArray(1, conn.createArrayOf("text", names.toArray()));
+            try (ResultSet rs = ps.executeQuery()) {
+               while (rs.next())
+                  ddl.put(rs.getString(1), rs.getString(2));
+            }
+         }
+         try (Statement stmt = conn.createStatement()) {
+            for (String index : ddl.keySet())
+               stmt.executeUpdate("DROP INDEX \"" + index + "\"");
+         }
+      }finally {
+         _pool.release(conn);
+      }
+      return ddl;
+   }//end dropSecondaryIndexes
+
+   // fails when a rebuilt index is missing or not valid, as a partitioned
+   // index is until every partition has its own
+   private void checkIndexes (Collection<String> names) throws SQLException {
+      if (names.isEmpty())
+         return;
+      Set<String> invalid = new TreeSet<String>(names);
+      Connection conn = _pool.borrow();
+      try (PreparedStatement ps = conn.prepareStatement(
+              "SELECT c.relname FROM pg_index x JOIN pg_class c ON c.oid = x.indexrelid "
+            + "JOIN pg_namespace n ON n.oid = c.relnamespace "
+            + "WHERE n.nspname = current_schema() AND c.relname = ANY (?) "
+            + "AND x.indisvalid")) {
+         ps.setArray(1, conn.createArrayOf("text", names.toArray()));
+         try (ResultSet rs = ps.executeQuery()) {
+            while (rs.next())
+               invalid.remove(rs.getString(1));
+         }
+      }finally {
+         _pool.release(conn);
+      }
+      if (!invalid.isEmpty())
+         throw new SQLException("Indexes missing or invalid after the load: " + String.join(", ", invalid));
+   }//end checkIndexes
+
+   /**
+    * Turns the trigger that adds ItemStatus prices to Orders.total off or on,
+    * for loads that bring their own totals.
+    *
+    * @param on enable the trigger
+    * @return false when the database has no such trigger
+    * @throws java.sql.SQLException when the trigger cannot be altered
+    */
+   boolean setTotalsMaintained (boolean on) throws SQLException {
+      Connection conn = _pool.borrow();
+      try {
+         return setTotalsMaintained(conn, on);
+      }finally {
+         _pool.release(conn);
+      }
+   }//end setTotalsMaintained
+
+   static boolean setTotalsMaintained (Connection conn, boolean on) throws SQLException {
+      return setTrigger(conn, "ItemStatus", "itemstatus_total_insert", on);
+   }//end setTotalsMaintained
+
+   /**
+    * Turns the order feed trigger for inserts into a table (create_notify.sql)
+    * off or on. A load would otherwise publish every row; when the trigger
+    * comes back on, listeners are told to reload instead.
+    *
+    * @param table Orders or ItemStatus
+    * @param on enable the trigger
+    * @return false when the database has no such trigger
+    * @throws java.sql.SQLException when the trigger cannot be altered
+    */
+   boolean setFeedPublished (String table, boolean on) throws SQLException {
+      Connection conn = _pool.borrow();
+      try {
+         return setFeedPublished(conn, table, on);
+      }finally {
+         _pool.release(conn);
+      }
+   }//end setFeedPublished
+
+   static boolean setFeedPublished (Connection conn, String table, boolean on) throws SQLException {
+      if (!setTrigger(conn, table, table.toLowerCase() + "_feed_insert", on))
+         return false;
+      if (on) {
+         try (Statement stmt = conn.createStatement()) {
+            stmt.execute("NOTIFY " + OrderFeed.CHANNEL + ", 'reload'");
+         }
+      }
+      return true;
+   }//end setFeedPublished
+
+   private static boolean setTrigger (Connection conn, String table, String trigger, boolean on) throws SQLException {
+      try (PreparedStatement ps = conn.prepareStatement(
+              "SELECT 1 FROM pg_trigger WHERE tgname = ? AND NOT tgisinternal")) {
+         ps.setString(1, trigger);
+         try (ResultSet rs = ps.executeQuery()) {
+            if (!rs.next())
+               return false;
+         }
+      }
+      try (Statement stmt = conn.createStatement()) {
+         stmt.executeUpdate("ALTER TABLE " + table + " " + (on ? "ENABLE" : "DISABLE") + " TRIGGER " + trigger);
+      }
+      return true;
+   }//end setTrigger
+
+   private boolean hasFunction (String name) throws SQLException {
+      Connection conn = _pool.borrow();
+      try {
+         return hasFunction(conn, name);
+      }finally {
+         _pool.release(conn);
+      }
+   }//end hasFunction
+
+   private static boolean hasFunction (Connection conn, String name) throws SQLException {
+      try (PreparedStatement ps = conn.prepareStatement("SELECT 1 FROM pg_proc WHERE proname = ?")) {
+         ps.setString(1, name);
+         try (ResultSet rs = ps.executeQuery()) {
+            return rs.next();
+         }
+      }
+   }//end hasFunction
+
+   private void execute (String sql) throws SQLException {
+      Connection conn = _pool.borrow();
+      try (Statement stmt = conn.createStatement()) {
+         stmt.execute(sql);
+      }finally {
+         _pool.release(conn);
+      }
+   }//end execute
+
+   private static List<Long> waitAll (List<Future<Long>> futures) throws Exception {
+      List<Long> results = new ArrayList<Long>();
+      try {
+         for (Future<Long> f : futures)
+            results.add(f.get());
+      }catch (ExecutionException e) {
+         for (Future<Long> f : futures)
+            f.cancel(true);
+         if (e.getCause() instanceof Exception)
+            throw (Exception) e.getCause();
+         throw e;
+      }
+      return results;
+   }//end waitAll
+
+}//end BulkLoader
@@ -0,0 +1,181 @@
+/*
+ * Template JAVA User Interface
+ * =============================
+ *
+ * Database Management Systems
+ * Department of Computer Science &amp; Engineering
+ * University of California - Riverside
+ *
+ * Target DBMS: 'Postgres'
+ *
+ */
+
+package cafe;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Status and payment changes for many items or orders at once, each one
+ * UPDATE statement however many rows it changes. Rows that already have the
+ * new value are left alone, so the counts returned are the rows that
+ * actually changed. Time bounds are on the order's time, which prunes the
+ * weekly partitions.
+ *
+ */
+public class BulkUpdates {
+
+   // the earliest and latest time of the orders in the array parameter, for
+   // when the active orders do not know them all (order_received() of
+   // create_partitions.sql); two parameters, the array twice
+   private static final String LOOKED_UP_RANGE =
+      " BETWEEN (SELECT min(order_received(o)) FROM unnest(?::integer[]) o)"
+    + " AND (SELECT max(order_received(o)) FROM unnest(?::integer[]) o)";
+
+   private BulkUpdates () {
+   }//end BulkUpdates
+
+   /**
+    * Gives every item of some orders a status.
+    *
+    * @param esql the database
+    * @param orderids the orders
+    * @param status the new status of their items
+    * @return the number of items changed
+    * @throws java.sql.SQLException when the update fails
+    */
+   public static int markItemsOfOrders (Cafe esql, int[] orderids, String status) throws SQLException {
+      LocalDateTime[] range = receivedRange(esql, orderids);
+      if (range != null)
+         return markItems(esql, "orderid = ANY(?) AND orderReceived BETWEEN ? AND ?", status, orderids, range[0], range[1]);
+      return markItems(esql, "orderid = ANY(?) AND orderReceived" + LOOKED_UP_RANGE, status, orderids, orderids, orderids);
+   }//end markItemsOfOrders
+
+   /**
+    * Gives every item of the orders received in a time range a status.
+    *
+    * @param esql the database
+    * @param from earliest order time changed, or null for no lower bound
+    * @param before orders from this time on are not changed
+    * @param status the new status of their items
+    * @return the number of items changed
+    * @throws java.sql.SQLException when the update fails
+    */
+   public static int markItemsBefore (Cafe esql, LocalDateTime from, LocalDateTime before, String status) throws SQLException {
+      if (from == null)
+         return markItems(esql, "orderReceived < ?", status, before);
+      return markItems(esql, "orderReceived >= ? AND orderReceived < ?", status, from, before);
+   }//end markItemsBefore
+
+   /**
+    * Marks some orders paid or unpaid.
+    *
+    * @param esql the database
+    * @param orderids the orders
+    * @param paid their new payment status
+    * @return the number of orders changed
+    * @throws java.sql.SQLException when the update fails
+    */
+   public static int markPaid (Cafe esql, int[] orderids, boolean paid) throws SQLException {
+      LocalDateTime[] range = receivedRange(esql, orderids);
+      if (range != null)
+         return markOrders(esql, "orderid = ANY(?) AND timeStampRecieved BETWEEN ? AND ?", paid, orderids, range[0], range[1]);
+      return markOrders(esql, "orderid = ANY(?) AND timeStampRecieved" + LOOKED_UP_RANGE, paid, orderids, orderids, orderids);
+   }//end markPaid
+
+   /**
+    * Marks the orders received in a time range paid or unpaid.
+    *
+    * @param esql the database
+    * @param from earliest order time changed, or null for no lower bound
+    * @param before orders from this time on are not changed
+    * @param paid their new payment status
+    * @return the number of orders changed
+    * @throws java.sql.SQLException when the update fails
+    */
+   public static int markPaidBefore (Cafe esql, LocalDateTime from, LocalDateTime before, boolean paid) throws SQLException {
+      if (from == null)
+         return markOrders(esql, "timeStampRecieved < ?", paid, before);
+      return markOrders(esql, "timeStampRecieved >= ? AND timeStampRecieved < ?", paid, from, before);
+   }//end markPaidBefore
+
+   // one UPDATE of the items matching condition, kept in step with the active orders
+   private static int markItems (Cafe esql, String condition, String status, Object... params) throws SQLException {
+      String query = "UPDATE ItemStatus SET status = ?, lastUpdated = statement_timestamp() "
+                   + "WHERE " + condition + " AND status IS DISTINCT FROM ?";
+      Object[] all = around(status, params);
+      ActiveOrders active = esql.getActiveOrders();
+      if (active == null)
+         return esql.executeUpdate(DurabilityPolicy.ITEM_STATUS, query, all);
+      List<Object[]> changed = returning(esql, DurabilityPolicy.ITEM_STATUS, query + " RETURNING orderid, itemName",
+                                         rs -> new Object[] { rs.getInt(1), rs.getString(2) }, all);
+      for (Object[] row : changed)
+         active.itemStatus((Integer) row[0], (String) row[1], status);
+      return changed.size();
+   }//end markItems
+
+   // one UPDATE of the orders matching condition, kept in step with the active orders
+   private static int markOrders (Cafe esql, String condition, boolean paid, Object... params) throws SQLException {
+      String query = "UPDATE Orders SET paid = ? WHERE " + condition + " AND paid IS DISTINCT FROM ?";
+      Object[] all = around(paid, params);
+      ActiveOrders active = esql.getActiveOrders();
+      if (active == null)
+         return esql.executeUpdate(DurabilityPolicy.PAYMENT, query, all);
+      List<Integer> changed = returning(esql, DurabilityPolicy.PAYMENT, query + " RETURNING orderid",
+                                        rs -> rs.getInt(1), all);
+      if (paid) {
+         for (int orderid : changed)
+            active.remove(orderid);
+      }
+      else if (!changed.isEmpty()) {
+         // orders marked unpaid again come back with their items
+         active.reload(esql);
+      }
+      return changed.size();
+   }//end markOrders
+
+   // runs an UPDATE ... RETURNING in a transaction of the policy's durability
+   private static <T> List<T> returning (Cafe esql, DurabilityPolicy policy, String query,
+                                         RowMapper<T> mapper, Object[] params) throws SQLException {
+      esql.beginTransaction(policy);
+      try {
+         List<T> rows = esql.executeQueryAndMap(query, mapper, params);
+         esql.commitTransaction();
+         return rows;
+      }catch (SQLException | RuntimeException e) {
+         esql.rollbackTransaction();
+         throw e;
+      }
+   }//end returning
+
+   // the earliest and latest time of the orders when the active orders know
+   // them all, which bounds the update to their partitions; else null
+   private static LocalDateTime[] receivedRange (Cafe esql, int[] orderids) {
+      ActiveOrders active = esql.getActiveOrders();
+      if (active == null || orderids.length == 0)
+         return null;
+      LocalDateTime first = null;
+      LocalDateTime last = null;
+      for (int orderid : orderids) {
+         LocalDateTime received = active.received(orderid);
+         if (received == null)
+            return null;
+         if (first == null || received.isBefore(first))
+            first = received;
+         if (last == null || received.isAfter(last))
+            last = received;
+      }
+      return new LocalDateTime[] { first, last };
+   }//end receivedRange
+
+   // the new value, the condition's parameters, then the new value again
+   private static Object[] around (Object value, Object[] params) {
+      Object[] all = new Object[params.length + 2];
+      all[0] = value;
+      System.arraycopy(params, 0, all, 1, params.length);
+      all[all.length - 1] = value;
+      return all;
+   }//end around
+
+}//end BulkUpdates
@@ -0,0 +1,183 @@
+/*
+ * Template JAVA User Interface
+ * =============================
+ *
+ * Database Management Systems
+ * Department of Computer Science &amp; Engineering
+ * University of California - Riverside
+ *
+ * Target DBMS: 'Postgres'
+ *
+ */
+
+package cafe;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Serves the Cafe menus to many terminals from one JVM. Every TCP
+ * connection (e.g. telnet or nc from a register or kiosk) is a session of
+ * its own on a virtual thread, with its own Terminal, running the same
+ * RunSession as the console client. All sessions share one connection
+ * pool, menu and active-orders index, and a session only holds a database
+ * connection while one of its statements or transactions runs.
+ *
+ * Usage: java -cp app/target/cafe-1.0-SNAPSHOT.jar:postgresql.jar cafe.CafeServer
+ *             <dbname> <port> [--listen port] [--bind address] [--max-sessions N]
+ */
+public class CafeServer {
+
+   private final Cafe _esql;
+   private final ServerSocket _socket;
+   private final Semaphore _slots;
+   private final Set<Terminal> _terminals = ConcurrentHashMap.newKeySet();
+   private final AtomicLong _sessions = new AtomicLong();
+   // the server's own log, before the system streams are routed
+   private final PrintStream _log;
+
+   /**
+    * @param esql the database every session uses
+    * @param socket the bound listening socket
+    * @param maxSessions sessions served at once; more are turned away
+    */
+   public CafeServer (Cafe esql, ServerSocket socket, int maxSessions) {
+      this._esql = esql;
+      this._socket = socket;
+      this._slots = new Semaphore(maxSessions);
+      this._log = System.err;
+   }//end CafeServer
+
+   public static void main (String[] args) throws Exception {
+      if (args.length < 2) {
+         System.err.println("Usage: java cafe.CafeServer <dbname> <port> [--listen port] [--bind address] [--max-sessions N]");
+         return;
+      }
+      int listen = 7166;
+      String bind = "127.0.0.1";
+      int maxSessions = 1000;
+      for (int i = 2; i + 1 < args.length; i += 2) {
+         switch (args[i]) {
+            case "--listen": listen = Integer.parseInt(args[i + 1]); break;
+            case "--bind": bind = args[i + 1]; break;
+            case "--max-sessions": maxSessions = Integer.parseInt(args[i + 1]); break;
+            default: throw new IllegalArgumentException("Unknown option " + args[i]);
+         }
+      }
+
+      DurabilityPolicy.checkSystemProperties();
+      Class.forName("org.postgresql.Driver");
+      Cafe esql = new Cafe(args[0], args[1]);
+      esql.getMenu();
+      esql.trackActiveOrdersFromSystemProperties();
+      esql.startIntakeFromSystemProperties();
+      PartitionMaintainer partitions = PartitionMaintainer.fromSystemProperties(esql.getPool());
+      ServerSocket socket = new ServerSocket(listen, 128, InetAddress.getByName(bind));
+      CafeServer server = new CafeServer(esql, socket, maxSessions);
+      MetricsDumper metrics = MetricsDumper.fromSystemProperties();
+      Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+         server.close();
+         partitions.close();
+         esql.cleanup();
+         if (metrics != null)
+            metrics.close();
+      }));
+      System.out.println("Serving Cafe sessions on " + bind + ":" + listen);
+      server.serve();
+   }//end main
+
+   /**
+    * Accepts terminals until the socket is closed, each on a virtual thread.
+    */
+   public void serve () {
+      // the menus print to System.out; each session's text goes to its socket
+      Terminal.routeSystemStreams();
+      if (_esql.getOrderFeed() != null)
+         _esql.getOrderFeed().addListener(this::announce);
+      while (!_socket.isClosed()) {
+         Socket client;
+         try {
+            client = _socket.accept();
+         }catch (IOException e) {
+            if (!_socket.isClosed())
+               _log.println("Accept failed: " + e.getMessage());
+            continue;
+         }
+         if (!_slots.tryAcquire()) {
+            refuse(client);
+            continue;
+         }
+         Thread.ofVirtual().name("cafe-session-" + _sessions.incrementAndGet()).start(() -> {
+            try {
+               session(client);
+            }finally {
+               _slots.release();
+            }
+         });
+      }//end while
+   }//end serve
+
+   /**
+    * Stops accepting terminals. Sessions in progress end with their
+    * connections.
+    */
+   public void close () {
+      try {
+         _socket.close();
+      }catch (IOException e) {
+         // ignored.
+      }
+   }//end close
+
+   // runs the menus for one connected terminal on the calling thread
+   private void session (Socket client) {
+      try (Socket s = client;
+           PrintStream out = new PrintStream(new BufferedOutputStream(s.getOutputStream(), 8192), false,
+                                             StandardCharsets.UTF_8)) {
+         BufferedReader in = new BufferedReader(new InputStreamReader(s.getInputStream(), StandardCharsets.UTF_8));
+         Terminal terminal = new Terminal(in, null, out);
+         Terminal.bind(terminal);
+         _terminals.add(terminal);
+         try {
+            Cafe.Greeting();
+            Cafe.RunSession(_esql);
+            out.println("Bye !");
+         }finally {
+            _terminals.remove(terminal);
+            Terminal.unbind();
+         }
+      }catch (Exception e) {
+         _log.println("Session ended: " + e.getMessage());
+      }
+   }//end session
+
+   private void refuse (Socket client) {
+      try (Socket s = client) {
+         s.getOutputStream().write("The Cafe server is busy, please try again later.\n".getBytes(StandardCharsets.UTF_8));
+      }catch (IOException e) {
+         // ignored.
+      }
+   }//end refuse
+
+   // tells every logged-in employee about a new order
+   private void announce (ActiveOrder order) {
+      String line = "\n** New order " + order.getOrderid() + ": " + String.join(", ", order.getItems().keySet());
+      for (Terminal terminal : _terminals) {
+         UserSession user = terminal.getUser();
+         if (user != null && !user.isCustomer())
+            terminal.notice(line);
+      }
+   }//end announce
+
+}//end CafeServer
@@ -0,0 +1,227 @@
+/*
+ * Template JAVA User Interface
+ * =============================
+ *
+ * Database Management Systems
+ * Department of Computer Science &amp; Engineering
+ * University of California - Riverside
+ *
+ * Target DBMS: 'Postgres'
+ *
+ */
+
+package cafe;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A query result stored column by column in primitive arrays, for reports
+ * over many rows. Numbers, booleans and timestamps are never boxed or
+ * turned into Strings; text columns share one String instance per distinct
+ * value (up to a dictionary limit), so low-cardinality columns like status
+ * and type cost a reference per row.
+ *
+ */
+public class ColumnarResult {
+
+   private static final int INT = 0, LONG = 1, FLOAT = 2, DOUBLE = 3, BOOLEAN = 4, TIMESTAMP = 5, TEXT = 6;
+
+   // distinct values remembered per text column before sharing stops
+   private static final int DICTIONARY_LIMIT = 4096;
+
+   private final String[] _names;
+   private final int[] _kinds;
+   private final Object[] _columns;
+   private final BitSet[] _nulls;
+   private final Map<String, String>[] _dictionaries;
+   private int _rowCount = 0;
+   private int _capacity;
+
+   @SuppressWarnings({"unchecked", "rawtypes"})
+   private ColumnarResult (ResultSetMetaData rsmd) throws SQLException {
+      int numCol = rsmd.getColumnCount();
+      this._names = new String[numCol];
+      this._kinds = new int[numCol];
+      this._columns = new Object[numCol];
+      this._nulls = new BitSet[numCol];
+      this._dictionaries = new Map[numCol];
+      this._capacity = 1024;
+      for (int i = 0; i < numCol; ++i) {
+         _names[i] = rsmd.getColumnLabel(i + 1);
+         _kinds[i] = kindOf(rsmd.getColumnType(i + 1));
+         _columns[i] = allocate(_kinds[i], _capacity);
+         _nulls[i] = new BitSet();
+         if (_kinds[i] == TEXT)
+            _dictionaries[i] = new HashMap<String, String>();
+      }
+   }//end ColumnarResult
+
+   /**
+    * Reads every remaining row of rs.
+    *
+    * @param rs the result set, positioned before the first row
+    * @return the rows, stored by column
+    * @throws java.sql.SQLException when reading the result failed
+    */
+   public static ColumnarResult read (ResultSet rs) throws SQLException {
+      ColumnarResult result = new ColumnarResult(rs.getMetaData());
+      while (rs.next())
+         result.append(rs);
+      return result;
+   }//end read
+
+   public int getRowCount () { return _rowCount; }
+   public int getColumnCount () { return _names.length; }
+   public String getColumnName (int col) { return _names[col]; }
+
+   public boolean isNull (int row, int col) {
+      checkRow(row);
+      return _nulls[col].get(row);
+   }
+
+   public int getInt (int row, int col) {
+      checkRow(row);
+      return ((int[]) column(col, INT))[row];
+   }
+
+   public long getLong (int row, int col) {
+      checkRow(row);
+      return _kinds[col] == INT ? getInt(row, col) : ((long[]) column(col, LONG))[row];
+   }
+
+   public float getFloat (int row, int col) {
+      checkRow(row);
+      return ((float[]) column(col, FLOAT))[row];
+   }
+
+   public double getDouble (int row, int col) {
+      checkRow(row);
+      return _kinds[col] == FLOAT ? getFloat(row, col) : ((double[]) column(col, DOUBLE))[row];
+   }
+
+   public boolean getBoolean (int row, int col) {
+      checkRow(row);
+      return ((boolean[]) column(col, BOOLEAN))[row];
+   }
+
+   /**
+    * @return the timestamp as milliseconds since the epoch
+    */
+   public long getTimestampMillis (int row, int col) {
+      checkRow(row);
+      return ((long[]) column(col, TIMESTAMP))[row];
+   }
+
+   /**
+    * @return the value of any column as text, or null
+    */
+   public String getString (int row, int col) {
+      if (isNull(row, col))
+         return null;
+      switch (_kinds[col]) {
+         case INT: return Integer.toString(getInt(row, col));
+         case LONG: return Long.toString(getLong(row, col));
+         case FLOAT: return Float.toString(getFloat(row, col));
+         case DOUBLE: return Double.toString(getDouble(row, col));
+         case BOOLEAN: return Boolean.toString(getBoolean(row, col));
+         case TIMESTAMP: return new Timestamp(getTimestampMillis(row, col)).toString();
+         default: return ((String[]) _columns[col])[row];
+      }
+   }//end getString
+
+   private void append (ResultSet rs) throws SQLException {
+      if (_rowCount == _capacity)
+         grow();
+      int row = _rowCount;
+      for (int i = 0; i < _kinds.length; ++i) {
+         int c = i + 1;
+         switch (_kinds[i]) {
+            case INT: ((int[]) _columns[i])[row] = rs.getInt(c); break;
+            case LONG: ((long[]) _columns[i])[row] = rs.getLong(c); break;
+            case FLOAT: ((float[]) _columns[i])[row] = rs.getFloat(c); break;
+            case DOUBLE: ((double[]) _columns[i])[row] = rs.getDouble(c); break;
+            case BOOLEAN: ((boolean[]) _columns[i])[row] = rs.getBoolean(c); break;
+            case TIMESTAMP:
+               Timestamp ts = rs.getTimestamp(c);
+               ((long[]) _columns[i])[row] = ts == null ? 0L : ts.getTime();
+               break;
+            default:
+               ((String[]) _columns[i])[row] = share(i, rs.getString(c));
+         }
+         if (rs.wasNull())
+            _nulls[i].set(row);
+      }
+      ++_rowCount;
+   }//end append
+
+   // returns the shared instance of a text value
+   private String share (int col, String value) {
+      if (value == null)
+         return null;
+      Map<String, String> dictionary = _dictionaries[col];
+      String shared = dictionary.get(value);
+      if (shared != null)
+         return shared;
+      if (dictionary.size() < DICTIONARY_LIMIT)
+         dictionary.put(value, value);
+      return value;
+   }//end share
+
+   private void grow () {
+      _capacity *= 2;
+      for (int i = 0; i < _columns.length; ++i) {
+         Object col = _columns[i];
+         switch (_kinds[i]) {
+            case INT: _columns[i] = Arrays.copyOf((int[]) col, _capacity); break;
+            case LONG: case TIMESTAMP: _columns[i] = Arrays.copyOf((long[]) col, _capacity); break;
+            case FLOAT: _columns[i] = Arrays.copyOf((float[]) col, _capacity); break;
+            case DOUBLE: _columns[i] = Arrays.copyOf((double[]) col, _capacity); break;
+            case BOOLEAN: _columns[i] = Arrays.copyOf((boolean[]) col, _capacity); break;
+            default: _columns[i] = Arrays.copyOf((String[]) col, _capacity);
+         }
+      }
+   }//end grow
+
+   private Object column (int col, int kind) {
+      if (_kinds[col] != kind)
+         throw new IllegalArgumentException("column " + _names[col] + " is not of the requested type");
+      return _columns[col];
+   }//end column
+
+   private void checkRow (int row) {
+      if (row < 0 || row >= _rowCount)
+         throw new IndexOutOfBoundsException("row " + row + " of " + _rowCount);
+   }//end checkRow
+
+   private static int kindOf (int sqlType) {
+      switch (sqlType) {
+         case Types.INTEGER: case Types.SMALLINT: case Types.TINYINT: return INT;
+         case Types.BIGINT: return LONG;
+         case Types.REAL: return FLOAT;
+         case Types.FLOAT: case Types.DOUBLE: case Types.NUMERIC: case Types.DECIMAL: return DOUBLE;
+         case Types.BOOLEAN: case Types.BIT: return BOOLEAN;
+         case Types.TIMESTAMP: case Types.TIMESTAMP_WITH_TIMEZONE: case Types.DATE: return TIMESTAMP;
+         default: return TEXT;
+      }
+   }//end kindOf
+
+   private static Object allocate (int kind, int capacity) {
+      switch (kind) {
+         case INT: return new int[capacity];
+         case LONG: case TIMESTAMP: return new long[capacity];
+         case FLOAT: return new float[capacity];
+         case DOUBLE: return new double[capacity];
+         case BOOLEAN: return new boolean[capacity];
+         default: return new String[capacity];
+      }
+   }//end allocate
+
+}//end ColumnarResult
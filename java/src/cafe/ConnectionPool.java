@@ -0,0 +1,345 @@
+/*
+ * Template JAVA User Interface
+ * =============================
+ *
+ * Database Management Systems
+ * Department of Computer Science &amp; Engineering
+ * University of California - Riverside
+ *
+ * Target DBMS: 'Postgres'
+ *
+ */
+
+package cafe;
+
+import java.sql.DriverManager;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A small bounded pool of physical JDBC connections shared by every Cafe
+ * session in the process. Connections are validated on borrow when they
+ * have been idle for a while, and idle connections above the minimum size
+ * are closed by a background evictor.
+ *
+ */
+public class ConnectionPool {
+
+   // connection URL every pooled connection is opened against
+   private final String _url;
+
+   private final int _minSize;
+   private final int _maxSize;
+   private final long _idleTimeoutMillis;
+   private final long _borrowTimeoutMillis;
+   private final long _validateAfterMillis;
+   private final int _statementCacheSize;
+
+   // one permit per connection that may be handed out
+   private final Semaphore _permits;
+
+   // idle connections, most recently returned first (guarded by itself)
+   private final ArrayDeque<Entry> _idle = new ArrayDeque<Entry>();
+
+   // number of open physical connections, idle or borrowed (guarded by _idle)
+   private int _open = 0;
+
+   // prepared statement cache of each open connection
+   private final Map<Connection, StatementCache> _statements = new ConcurrentHashMap<Connection, StatementCache>();
+
+   private final ScheduledExecutorService _evictor;
+   private volatile boolean _closed = false;
+
+   // pool-wait metrics
+   private final AtomicLong _borrows = new AtomicLong();
+   private final AtomicLong _waitNanos = new AtomicLong();
+   private final AtomicLong _maxWaitNanos = new AtomicLong();
+   private final AtomicLong _timeouts = new AtomicLong();
+   private final AtomicLong _created = new AtomicLong();
+   private final AtomicLong _destroyed = new AtomicLong();
+
+   private static final class Entry {
+      final Connection conn;
+      long lastUsed;
+
+      Entry(Connection conn) {
+         this.conn = conn;
+         this.lastUsed = System.currentTimeMillis();
+      }
+   }//end Entry
+
+   /**
+    * Creates a new pool and opens the minimum number of connections.
+    *
+    * @param url the JDBC connection URL
+    * @param minSize connections kept open even when idle
+    * @param maxSize upper bound on open connections
+    * @param idleTimeoutMillis idle time after which surplus connections are closed
+    * @param borrowTimeoutMillis how long a borrower waits for a free connection
+    * @throws java.sql.SQLException when the initial connections cannot be opened
+    */
+   public ConnectionPool (String url, int minSize, int maxSize,
+                          long idleTimeoutMillis, long borrowTimeoutMillis) throws SQLException {
+      if (minSize < 0 || maxSize < 1 || minSize > maxSize)
+         throw new IllegalArgumentException("invalid pool size: min=" + minSize + " max=" + maxSize);
+      this._url = url;
+      this._minSize = minSize;
+      this._maxSize = maxSize;
+      this._idleTimeoutMillis = idleTimeoutMillis;
+      this._borrowTimeoutMillis = borrowTimeoutMillis;
+      this._validateAfterMillis = Long.getLong("cafe.pool.validateAfterMs", 5000L);
+      this._statementCacheSize = Integer.getInteger("cafe.statementCacheSize", 64);
+      this._permits = new Semaphore(maxSize, true);
+
+      for (int i = 0; i < minSize; ++i) {
+         Entry e = new Entry(open());
+         synchronized (_idle) {
+            _idle.push(e);
+            ++_open;
+         }
+      }//end for
+
+      this._evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+         Thread t = new Thread(r, "cafe-pool-evictor");
+         t.setDaemon(true);
+         return t;
+      });
+      long period = Math.max(1000L, idleTimeoutMillis / 2);
+      this._evictor.scheduleWithFixedDelay(this::evictIdle, period, period, TimeUnit.MILLISECONDS);
+   }//end ConnectionPool
+
+   /**
+    * Creates a pool sized from the cafe.pool.* system properties.
+    *
+    * @param url the JDBC connection URL
+    * @return the new pool
+    * @throws java.sql.SQLException when the initial connections cannot be opened
+    */
+   public static ConnectionPool fromSystemProperties (String url) throws SQLException {
+      return new ConnectionPool(url,
+                                Integer.getInteger("cafe.pool.min", 1),
+                                Integer.getInteger("cafe.pool.max", 10),
+                                Long.getLong("cafe.pool.idleTimeoutMs", 60000L),
+                                Long.getLong("cafe.pool.borrowTimeoutMs", 30000L));
+   }//end fromSystemProperties
+
+   /**
+    * Takes a connection out of the pool, opening a new one if none is idle.
+    * Blocks for at most the borrow timeout when the pool is exhausted.
+    *
+    * @return a connection in autocommit mode
+    * @throws java.sql.SQLException when no connection became available in time
+    */
+   public Connection borrow () throws SQLException {
+      if (_closed)
+         throw new SQLException("Connection pool is closed");
+
+      long start = System.nanoTime();
+      try {
+         if (!_permits.tryAcquire(_borrowTimeoutMillis, TimeUnit.MILLISECONDS)) {
+            _timeouts.incrementAndGet();
+            throw new SQLException("Timed out after " + _borrowTimeoutMillis + "ms waiting for a database connection");
+         }
+      }catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw new SQLException("Interrupted while waiting for a database connection");
+      }
+      recordWait(System.nanoTime() - start);
+
+      try {
+         while (true) {
+            Entry e;
+            synchronized (_idle) {
+               e = _idle.poll();
+               if (e == null)
+                  ++_open;
+            }
+            if (e == null)
+               return open();
+            if (isUsable(e))
+               return e.conn;
+            destroy(e.conn);
+         }//end while
+      }catch (SQLException | RuntimeException ex) {
+         synchronized (_idle) {
+            --_open;
+         }
+         _permits.release();
+         throw ex;
+      }
+   }//end borrow
+
+   /**
+    * Returns a borrowed connection to the pool. Broken connections are closed
+    * instead of being reused.
+    *
+    * @param conn a connection obtained from borrow()
+    */
+   public void release (Connection conn) {
+      if (conn == null)
+         return;
+      boolean reusable = !_closed;
+      try {
+         if (conn.isClosed()) {
+            reusable = false;
+         }
+         else if (!conn.getAutoCommit()) {
+            conn.rollback();
+            conn.setAutoCommit(true);
+         }
+      }catch (SQLException e) {
+         reusable = false;
+      }
+
+      if (reusable) {
+         synchronized (_idle) {
+            Entry e = new Entry(conn);
+            _idle.push(e);
+         }
+      }
+      else {
+         destroy(conn);
+      }
+      _permits.release();
+   }//end release
+
+   /**
+    * Returns the prepared statement cache of a borrowed connection. The cache
+    * lives as long as the physical connection, so statements stay prepared
+    * across borrows.
+    *
+    * @param conn a connection obtained from borrow()
+    * @return the statement cache for that connection
+    */
+   public StatementCache statements (Connection conn) {
+      return _statements.computeIfAbsent(conn, c -> new StatementCache(c, _statementCacheSize));
+   }//end statements
+
+   /**
+    * Closes every idle connection and stops the evictor. Connections still
+    * borrowed are closed when they are released.
+    */
+   public void close () {
+      _closed = true;
+      _evictor.shutdownNow();
+      synchronized (_idle) {
+         for (Entry e : _idle)
+            closeConnection(e.conn);
+         _open -= _idle.size();
+         _destroyed.addAndGet(_idle.size());
+         _idle.clear();
+      }
+   }//end close
+
+   /**
+    * @return a one-line summary of the pool size and wait metrics
+    */
+   public String stats () {
+      int idle, open;
+      synchronized (_idle) {
+         idle = _idle.size();
+         open = _open;
+      }
+      long borrows = _borrows.get();
+      double avgWaitMs = borrows == 0 ? 0.0 : _waitNanos.get() / 1e6 / borrows;
+      return String.format("pool[open=%d idle=%d max=%d borrows=%d avgWait=%.3fms maxWait=%.3fms timeouts=%d created=%d destroyed=%d]",
+                           open, idle, _maxSize, borrows, avgWaitMs, _maxWaitNanos.get() / 1e6,
+                           _timeouts.get(), _created.get(), _destroyed.get());
+   }//end stats
+
+   /**
+    * @return the JDBC URL the pool opens its connections against, for
+    *         connections that must stay outside it
+    */
+   public String getUrl () {
+      return _url;
+   }//end getUrl
+
+   public long getBorrowCount () { return _borrows.get(); }
+   public long getTotalWaitNanos () { return _waitNanos.get(); }
+   public long getMaxWaitNanos () { return _maxWaitNanos.get(); }
+   public long getTimeoutCount () { return _timeouts.get(); }
+
+   private Connection open () throws SQLException {
+      Connection conn = DriverManager.getConnection(_url);
+      _created.incrementAndGet();
+      return conn;
+   }//end open
+
+   private boolean isUsable (Entry e) {
+      if (System.currentTimeMillis() - e.lastUsed < _validateAfterMillis)
+         return true;
+      try {
+         return e.conn.isValid(2);
+      }catch (SQLException ex) {
+         return false;
+      }
+   }//end isUsable
+
+   private void destroy (Connection conn) {
+      closeConnection(conn);
+      _destroyed.incrementAndGet();
+      synchronized (_idle) {
+         --_open;
+      }
+   }//end destroy
+
+   // takes the stale connections out under the lock and closes them after
+   // it, so a slow close does not hold up borrow() and release()
+   private void evictIdle () {
+      long cutoff = System.currentTimeMillis() - _idleTimeoutMillis;
+      List<Entry> evicted = new ArrayList<Entry>();
+      synchronized (_idle) {
+         // oldest idle connections sit at the tail
+         Iterator<Entry> it = _idle.descendingIterator();
+         while (it.hasNext() && _open > _minSize) {
+            Entry e = it.next();
+            if (e.lastUsed > cutoff)
+               break;
+            it.remove();
+            evicted.add(e);
+            --_open;
+         }//end while
+      }
+      for (Entry e : evicted) {
+         closeConnection(e.conn);
+         _destroyed.incrementAndGet();
+      }
+   }//end evictIdle
+
+   private void recordWait (long nanos) {
+      _borrows.incrementAndGet();
+      _waitNanos.addAndGet(nanos);
+      long max;
+      while (nanos > (max = _maxWaitNanos.get()) && !_maxWaitNanos.compareAndSet(max, nanos)) {
+         // retry
+      }
+   }//end recordWait
+
+   private void closeConnection (Connection conn) {
+      StatementCache cache = _statements.remove(conn);
+      if (cache != null)
+         cache.close();
+      closeQuietly(conn);
+   }//end closeConnection
+
+   private static void closeQuietly (Connection conn) {
+      try {
+         conn.close();
+      }catch (SQLException e) {
+         // ignored.
+      }
+   }//end closeQuietly
+
+}//end ConnectionPool
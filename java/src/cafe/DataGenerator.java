@@ -0,0 +1,436 @@
+/*
+ * Template JAVA User Interface
+ * =============================
+ *
+ * Database Management Systems
+ * Department of Computer Science &amp; Engineering
+ * University of California - Riverside
+ *
+ * Target DBMS: 'Postgres'
+ *
+ */
+
+package cafe;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+
+/**
+ * Generates Orders and ItemStatus rows in COPY text format (; delimited,
+ * ItemStatus ending with the time of its order, the partition key)
+ * for a given number of orders, either into orders.csv and itemStatus.csv
+ * or straight into the database.
+ *
+ * Orders are spread over the days before an end time, weighted by a cafe
+ * time-of-day curve and lighter weekends, and numbered in time order, from
+ * 1 or, with --load, from past the orders already in the database. How
+ * often a customer orders follows a Zipf distribution, so a few regulars
+ * place most orders. Each order has one to four distinct items, and the
+ * item mix follows the hour: drinks in the morning, soup at lunch and
+ * dinner, sweets in the afternoon. Orders from the last couple of hours
+ * are unpaid and not finished yet. The output depends only on the inputs,
+ * the seed and the end time.
+ *
+ * Usage: java cafe.DataGenerator [--orders N] [--days D] [--seed S] [--end yyyy-MM-ddTHH:mm]
+ *                                [--data dir] [--out dir | --load dbname port]
+ */
+public class DataGenerator {
+
+   // relative order rate for each hour of the day
+   private static final double[] HOURLY = {
+      0.05, 0.05, 0.05, 0.05, 0.05, 0.1, 0.6, 1.6, 2.0, 1.5, 1.0, 1.3,
+      1.8, 1.4, 0.9, 1.1, 1.0, 0.9, 0.8, 0.6, 0.4, 0.2, 0.05, 0.05 };
+
+   private static final double WEEKEND = 0.8;
+
+   // share of orders with 1, 2, 3 and 4 items
+   private static final double[] ITEM_COUNTS = { 0.5, 0.3, 0.15, 0.05 };
+   private static final double[] ITEM_COUNTS_CUMULATIVE = cumulative(ITEM_COUNTS);
+
+   private static final double ZIPF_EXPONENT = 0.8;
+
+   private static final DateTimeFormatter DAY = DateTimeFormatter.ofPattern("yyyy-MM-dd ");
+
+   private final String[] _customers;
+   private final String[] _items;
+   private final int[] _cents;
+   private final long _seed;
+   private final long _orders;
+   private final int _days;
+   private final LocalDateTime _end;
+   private final int _unpaidMinutes;
+   // the orderid of the first order generated
+   private long _firstOrderid = 1;
+
+   // cumulative customer weights, Zipf over a seeded permutation
+   private final double[] _customerWeights;
+
+   // cumulative item weights for each hour of the day
+   private final double[][] _itemWeights = new double[24][];
+
+   /**
+    * @param customers logins orders are placed by
+    * @param menu items orders are made of
+    * @param seed random seed
+    * @param orders number of orders to generate
+    * @param days number of days the orders are spread over
+    * @param end time of the newest order
+    * @param unpaidMinutes orders this close to the end are still open
+    */
+   public DataGenerator (List<String> customers, List<MenuItem> menu, long seed,
+                         long orders, int days, LocalDateTime end, int unpaidMinutes) {
+      if (customers.isEmpty() || menu.isEmpty())
+         throw new IllegalArgumentException("need at least one customer and one menu item");
+      this._seed = seed;
+      this._orders = orders;
+      this._days = days;
+      this._end = end;
+      this._unpaidMinutes = unpaidMinutes;
+
+      this._customers = customers.toArray(new String[0]);
+      SplittableRandom setup = new SplittableRandom(seed);
+      for (int i = _customers.length - 1; i > 0; --i) {
+         int j = setup.nextInt(i + 1);
+         String t = _customers[i];
+         _customers[i] = _customers[j];
+         _customers[j] = t;
+      }
+      this._customerWeights = new double[_customers.length];
+      double sum = 0;
+      for (int i = 0; i < _customers.length; ++i) {
+         sum += 1.0 / Math.pow(i + 1, ZIPF_EXPONENT);
+         _customerWeights[i] = sum;
+      }
+
+      this._items = new String[menu.size()];
+      this._cents = new int[menu.size()];
+      double[] popularity = new double[menu.size()];
+      for (int i = 0; i < menu.size(); ++i) {
+         _items[i] = menu.get(i).getItemName();
+         _cents[i] = Math.round(menu.get(i).getPrice() * 100);
+         popularity[i] = 0.5 + setup.nextDouble();
+      }
+      for (int h = 0; h < 24; ++h) {
+         double[] cumulative = new double[menu.size()];
+         double total = 0;
+         for (int i = 0; i < menu.size(); ++i) {
+            total += popularity[i] * typeWeight(menu.get(i).getType(), h);
+            cumulative[i] = total;
+         }
+         _itemWeights[h] = cumulative;
+      }
+   }//end DataGenerator
+
+   /**
+    * Numbers the orders from firstOrderid on instead of 1, e.g. past the
+    * orders already in a database.
+    *
+    * @param firstOrderid the orderid of the first order generated
+    */
+   public void setFirstOrderid (long firstOrderid) {
+      this._firstOrderid = firstOrderid;
+   }//end setFirstOrderid
+
+   // how much a type of item sells at an hour of the day
+   private static double typeWeight (String type, int hour) {
+      switch (type) {
+         case "Drinks": return hour >= 6 && hour < 11 ? 3.0 : 1.5;
+         case "Soup": return (hour >= 11 && hour < 14) ? 2.5 : (hour >= 17 && hour < 20) ? 1.5 : 0.3;
+         case "Sweets": return hour >= 14 && hour < 17 ? 2.0 : 0.7;
+         default: return 1.0;
+      }
+   }//end typeWeight
+
+   /**
+    * Writes the rows. Either writer may be null; the rows written to the
+    * other one do not change, so the two tables can be produced in
+    * separate runs.
+    *
+    * @param orders receives Orders rows, or null
+    * @param itemStatus receives ItemStatus rows, or null
+    * @throws java.io.IOException when a writer fails
+    */
+   public void generate (Writer orders, Writer itemStatus) throws IOException {
+      SplittableRandom random = new SplittableRandom(_seed ^ 0x5DEECE66DL);
+      LocalDateTime first = _end.minusDays(_days);
+      LocalDateTime unpaidFrom = _end.minusMinutes(_unpaidMinutes);
+      int startSecond = first.toLocalTime().toSecondOfDay();
+
+      // orders per day, in proportion to the day weights
+      double[] dayWeights = new double[_days];
+      double weightSum = 0;
+      for (int d = 0; d < _days; ++d) {
+         DayOfWeek dow = first.plusDays(d).getDayOfWeek();
+         dayWeights[d] = (dow == DayOfWeek.SATURDAY || dow == DayOfWeek.SUNDAY) ? WEEKEND : 1.0;
+         weightSum += dayWeights[d];
+      }
+      // the 24 hour window after first's time of day, cut where the hours of
+      // the day change, with the orders' density summed along it
+      int[] bounds = new int[26];
+      int segments = 0;
+      for (int at = 0; at < 86400; at += 3600 - (startSecond + at) % 3600)
+         bounds[segments++] = at;
+      bounds[segments] = 86400;
+      double[] density = new double[segments];
+      for (int k = 0; k < segments; ++k)
+         density[k] = HOURLY[(startSecond + bounds[k]) / 3600 % 24] * (bounds[k + 1] - bounds[k]) / 3600.0;
+      double[] window = cumulative(density);
+
+      StringBuilder line = new StringBuilder(256);
+      int[] chosen = new int[ITEM_COUNTS.length];
+      long orderid = 0;
+      double carried = 0;
+      for (int d = 0; d < _days; ++d) {
+         carried += _orders * dayWeights[d] / weightSum;
+         int count = (int) Math.min(Math.round(carried) - orderid, _orders - orderid);
+         if (d == _days - 1)
+            count = (int) (_orders - orderid);
+
+         // the day's times are drawn already sorted, so orderids follow time
+         // without holding the day: u runs through count sorted uniforms
+         // and is mapped through the window's distribution
+         LocalDateTime windowStart = first.plusDays(d);
+         double u = 0;
+         int segment = 0;
+         for (int i = 0; i < count; ++i) {
+            u = 1 - (1 - u) * Math.pow(random.nextDouble(), 1.0 / (count - i));
+            double x = u * window[segments - 1];
+            while (segment < segments - 1 && x >= window[segment])
+               ++segment;
+            double before = segment == 0 ? 0 : window[segment - 1];
+            int width = bounds[segment + 1] - bounds[segment];
+            int offset = bounds[segment] + Math.min(width - 1, (int) ((x - before) / density[segment] * width));
+
+            ++orderid;
+            long id = _firstOrderid + orderid - 1;
+            LocalDateTime received = windowStart.plusSeconds(offset);
+            int hour = received.getHour();
+            String login = _customers[pick(_customerWeights, random)];
+            boolean paid = received.isBefore(unpaidFrom);
+
+            int items = 1 + pick(ITEM_COUNTS_CUMULATIVE, random);
+            items = Math.min(items, _items.length);
+            int total = 0;
+            for (int k = 0; k < items; ++k) {
+               int item;
+               do {
+                  item = pick(_itemWeights[hour], random);
+               } while (contains(chosen, k, item));
+               chosen[k] = item;
+               total += _cents[item];
+            }
+            int prepSeconds = 60 + random.nextInt(600);
+
+            if (orders != null) {
+               line.setLength(0);
+               line.append(id).append(';').append(login).append(';').append(paid ? 't' : 'f').append(';');
+               appendTimestamp(line, received);
+               line.append(';').append(total / 100).append('.');
+               appendTwoDigits(line, total % 100).append('\n');
+               orders.append(line);
+            }
+            if (itemStatus != null) {
+               for (int k = 0; k < items; ++k) {
+                  line.setLength(0);
+                  line.append(id).append(';').append(_items[chosen[k]]).append(';');
+                  appendTimestamp(line, paid ? received.plusSeconds(prepSeconds) : received);
+                  line.append(';').append(paid ? "Finished" : (k == 0 ? "Started" : "Hasn't Started"));
+                  line.append(";\\N;");
+                  appendTimestamp(line, received);
+                  line.append('\n');
+                  itemStatus.append(line);
+               }
+            }
+         }//end for
+      }//end for
+   }//end generate
+
+   private static double[] cumulative (double[] weights) {
+      double[] c = new double[weights.length];
+      double sum = 0;
+      for (int i = 0; i < weights.length; ++i) {
+         sum += weights[i];
+         c[i] = sum;
+      }
+      return c;
+   }//end cumulative
+
+   // index drawn in proportion to the weights behind a cumulative array
+   private static int pick (double[] cumulative, SplittableRandom random) {
+      double x = random.nextDouble() * cumulative[cumulative.length - 1];
+      int i = Arrays.binarySearch(cumulative, x);
+      i = i < 0 ? -i - 1 : i + 1;
+      return Math.min(i, cumulative.length - 1);
+   }//end pick
+
+   private static boolean contains (int[] values, int count, int value) {
+      for (int i = 0; i < count; ++i)
+         if (values[i] == value)
+            return true;
+      return false;
+   }//end contains
+
+   // date part of the last timestamp written; orders arrive in time order
+   private LocalDate _day;
+   private String _dayPrefix;
+
+   private void appendTimestamp (StringBuilder sb, LocalDateTime t) {
+      if (!t.toLocalDate().equals(_day)) {
+         _day = t.toLocalDate();
+         _dayPrefix = DAY.format(_day);
+      }
+      sb.append(_dayPrefix);
+      appendTwoDigits(sb, t.getHour()).append(':');
+      appendTwoDigits(sb, t.getMinute()).append(':');
+      appendTwoDigits(sb, t.getSecond());
+   }//end appendTimestamp
+
+   private static StringBuilder appendTwoDigits (StringBuilder sb, int value) {
+      if (value < 10)
+         sb.append('0');
+      return sb.append(value);
+   }//end appendTwoDigits
+
+   public static void main (String[] args) throws Exception {
+      long orders = 100000;
+      int days = 30;
+      long seed = 42L;
+      LocalDateTime end = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES);
+      File data = new File("../project/data");
+      File out = null;
+      String dbname = null, dbport = null;
+      for (int i = 0; i < args.length; ++i) {
+         switch (args[i]) {
+            case "--orders": orders = Long.parseLong(args[++i]); break;
+            case "--days": days = Integer.parseInt(args[++i]); break;
+            case "--seed": seed = Long.parseLong(args[++i]); break;
+            case "--end": end = LocalDateTime.parse(args[++i]); break;
+            case "--data": data = new File(args[++i]); break;
+            case "--out": out = new File(args[++i]); break;
+            case "--load": dbname = args[++i]; dbport = args[++i]; break;
+            default:
+               System.err.println("Usage: java cafe.DataGenerator [--orders N] [--days D] [--seed S] [--end yyyy-MM-ddTHH:mm] [--data dir] [--out dir | --load dbname port]");
+               return;
+         }
+      }
+
+      long start = System.nanoTime();
+      if (dbname != null) {
+         Class.forName("org.postgresql.Driver");
+         Cafe esql = new Cafe(dbname, dbport);
+         try {
+            List<String> customers = esql.executeQueryAndMap(
+               "SELECT login FROM Users WHERE type = 'Customer' ORDER BY login", rs -> rs.getString(1).stripTrailing());
+            List<MenuItem> menu = new ArrayList<MenuItem>();
+            for (MenuItem item : esql.getMenu().all())
+               menu.add(item);
+            menu.sort((a, b) -> a.getItemName().compareTo(b.getItemName()));
+            DataGenerator generator = new DataGenerator(customers, menu, seed, orders, days, end, 120);
+            // past the orders already there, however the sequence was left
+            generator.setFirstOrderid(esql.executeQueryAndMap(
+               "SELECT GREATEST(nextval(pg_get_serial_sequence('orders', 'orderid')), "
+             + "(SELECT COALESCE(max(orderid), 0) + 1 FROM Orders))", rs -> rs.getLong(1)).get(0));
+            Connection conn = esql.getPool().borrow();
+            try {
+               BulkLoader.ensurePartitions(conn, end.minusDays(days).toString(), end.toString());
+            }finally {
+               esql.getPool().release(conn);
+            }
+            // ItemStatus references Orders, so the orders go in first
+            copy(esql, "Orders", false, w -> generator.generate(w, null));
+            copy(esql, "ItemStatus", true, w -> generator.generate(null, w));
+            esql.executeQueryAndMap("SELECT setval(pg_get_serial_sequence('orders', 'orderid'), "
+                                  + "COALESCE(max(orderid), 0) + 1, false) FROM Orders", rs -> rs.getLong(1));
+         }finally {
+            esql.cleanup();
+         }
+      }
+      else {
+         if (out == null)
+            out = data;
+         DataGenerator generator = new DataGenerator(readCustomers(new File(data, "users.csv")),
+                                                     readMenu(new File(data, "menu.csv")),
+                                                     seed, orders, days, end, 120);
+         try (Writer o = new BufferedWriter(new FileWriter(new File(out, "orders.csv"), StandardCharsets.UTF_8), 1 << 16);
+              Writer s = new BufferedWriter(new FileWriter(new File(out, "itemStatus.csv"), StandardCharsets.UTF_8), 1 << 16)) {
+            generator.generate(o, s);
+         }
+      }
+      double seconds = (System.nanoTime() - start) / 1e9;
+      System.out.printf("Generated %d orders in %.2fs (%.0f orders/s)%n", orders, seconds, orders / seconds);
+   }//end main
+
+   private interface RowSink {
+      void write(Writer w) throws IOException;
+   }//end RowSink
+
+   // ownTotals: the rows belong to orders whose totals were generated already
+   private static void copy (Cafe esql, String table, boolean ownTotals, RowSink rows) throws SQLException, IOException {
+      String columns = table.equals("ItemStatus") ? " " + BulkLoader.ITEMSTATUS_COLUMNS : "";
+      String sql = "COPY " + table + columns + " FROM STDIN WITH (DELIMITER ';')";
+      Connection conn = esql.getPool().borrow();
+      boolean disabled = ownTotals && BulkLoader.setTotalsMaintained(conn, false);
+      boolean unpublished = BulkLoader.setFeedPublished(conn, table, false);
+      try (Writer w = new BufferedWriter(new OutputStreamWriter(
+              new PGCopyOutputStream(conn.unwrap(PGConnection.class), sql, 1 << 16), StandardCharsets.UTF_8), 1 << 16)) {
+         rows.write(w);
+      }finally {
+         if (disabled)
+            BulkLoader.setTotalsMaintained(conn, true);
+         if (unpublished)
+            BulkLoader.setFeedPublished(conn, table, true);
+         esql.getPool().release(conn);
+      }
+   }//end copy
+
+   /**
+    * @param usersCsv the users.csv file (login;phoneNum;password;favItems;type)
+    * @return logins of the customers in file order
+    * @throws java.io.IOException when the file cannot be read
+    */
+   public static List<String> readCustomers (File usersCsv) throws IOException {
+      List<String> logins = new ArrayList<String>();
+      for (String line : Files.readAllLines(usersCsv.toPath(), StandardCharsets.UTF_8)) {
+         String[] f = line.split(";", -1);
+         if (f.length >= 5 && f[4].trim().equals("Customer"))
+            logins.add(f[0]);
+      }
+      return logins;
+   }//end readCustomers
+
+   /**
+    * @param menuCsv the menu.csv file (itemName;type;price;description;imageURL)
+    * @return the menu items in file order
+    * @throws java.io.IOException when the file cannot be read
+    */
+   public static List<MenuItem> readMenu (File menuCsv) throws IOException {
+      List<MenuItem> items = new ArrayList<MenuItem>();
+      for (String line : Files.readAllLines(menuCsv.toPath(), StandardCharsets.UTF_8)) {
+         String[] f = line.split(";", -1);
+         if (f.length >= 5)
+            items.add(new MenuItem(f[0], f[1], Float.parseFloat(f[2]), f[3], f[4]));
+      }
+      return items;
+   }//end readMenu
+
+}//end DataGenerator
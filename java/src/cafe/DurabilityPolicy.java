@@ -0,0 +1,102 @@
+/*
+ * Template JAVA User Interface
+ * =============================
+ *
+ * Database Management Systems
+ * Department of Computer Science &amp; Engineering
+ * University of California - Riverside
+ *
+ * Target DBMS: 'Postgres'
+ *
+ */
+
+package cafe;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * How durable each kind of order write is, as the synchronous_commit
+ * setting its transactions run with. Orders and payments carry money and
+ * wait for their commit to be flushed by default; item status flips are
+ * cheap to redo and do not (cafe.durability.status=off), so a crash may
+ * lose the last few of them but never leaves the database inconsistent.
+ * Each is set by its cafe.durability.* system property to any
+ * synchronous_commit value.
+ *
+ */
+public enum DurabilityPolicy {
+
+   ORDER ("cafe.durability.order", "on"),
+   PAYMENT ("cafe.durability.payment", "on"),
+   ITEM_STATUS ("cafe.durability.status", "off");
+
+   // the settings synchronous_commit takes
+   private static final List<String> SETTINGS = Arrays.asList("on", "off", "local", "remote_write", "remote_apply");
+
+   /**
+    * Sets synchronous_commit until the end of the transaction, with the
+    * setting as its one parameter. Sent ahead of a statement in the same
+    * round trip, it applies to that statement's implicit transaction.
+    */
+   public static final String SET_LOCAL = "SELECT set_config('synchronous_commit', ?, true)";
+
+   private final String _property;
+   private final String _defaultSetting;
+   // read on first use, so a bad value is reported where it is used
+   private volatile String _synchronousCommit;
+
+   DurabilityPolicy (String property, String defaultSetting) {
+      this._property = property;
+      this._defaultSetting = defaultSetting;
+   }//end DurabilityPolicy
+
+   /**
+    * Reads every policy's system property, so a bad value stops the client
+    * at start-up instead of failing its first write.
+    *
+    * @throws IllegalArgumentException naming the property and its bad value
+    */
+   public static void checkSystemProperties () {
+      for (DurabilityPolicy policy : values())
+         policy.getSynchronousCommit();
+   }//end checkSystemProperties
+
+   /**
+    * @return the system property this policy is read from
+    */
+   public String getProperty () { return _property; }
+
+   /**
+    * @return the synchronous_commit setting of these writes
+    * @throws IllegalArgumentException when the system property is not a
+    *         synchronous_commit setting
+    */
+   public String getSynchronousCommit () {
+      String setting = _synchronousCommit;
+      if (setting == null) {
+         setting = System.getProperty(_property, _defaultSetting);
+         // the setting is also written into SET LOCAL, which takes no parameters
+         if (!SETTINGS.contains(setting))
+            throw new IllegalArgumentException("-D" + _property + "=" + setting + " is not a synchronous_commit setting; use one of " + SETTINGS);
+         _synchronousCommit = setting;
+      }
+      return setting;
+   }//end getSynchronousCommit
+
+   /**
+    * Applies this policy to the open transaction of conn, until it ends.
+    *
+    * @param conn a connection with autocommit off
+    * @throws java.sql.SQLException when the setting cannot be changed
+    */
+   public void apply (Connection conn) throws SQLException {
+      try (Statement stmt = conn.createStatement()) {
+         stmt.execute("SET LOCAL synchronous_commit = " + getSynchronousCommit());
+      }
+   }//end apply
+
+}//end DurabilityPolicy
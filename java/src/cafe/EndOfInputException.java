@@ -0,0 +1,29 @@
+/*
+ * Template JAVA User Interface
+ * =============================
+ *
+ * Database Management Systems
+ * Department of Computer Science &amp; Engineering
+ * University of California - Riverside
+ *
+ * Target DBMS: 'Postgres'
+ *
+ */
+
+package cafe;
+
+/**
+ * Thrown when a session's input runs out, at end of a workload script or
+ * when the keyboard is closed, so the menus unwind instead of re-prompting.
+ * The menu loops that catch Exception to keep going must let it through.
+ *
+ */
+public class EndOfInputException extends RuntimeException {
+
+   private static final long serialVersionUID = 1L;
+
+   public EndOfInputException () {
+      super("End of input");
+   }//end EndOfInputException
+
+}//end EndOfInputException
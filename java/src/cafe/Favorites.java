@@ -0,0 +1,79 @@
+/*
+ * Template JAVA User Interface
+ * =============================
+ *
+ * Database Management Systems
+ * Department of Computer Science &amp; Engineering
+ * University of California - Riverside
+ *
+ * Target DBMS: 'Postgres'
+ *
+ */
+
+package cafe;
+
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Favorite menu items of the users, one UserFavorites row per (login,
+ * itemName). Lookups by login use the primary key and lookups by item use
+ * userfavorites_item_login_idx, so no call scans the table.
+ *
+ */
+public class Favorites {
+
+   private Favorites () {
+   }//end Favorites
+
+   /**
+    * @param esql the database
+    * @param login the user
+    * @return the user's favorite items in name order
+    * @throws java.sql.SQLException when the query fails
+    */
+   public static List<String> of (Cafe esql, String login) throws SQLException {
+      return esql.executeQueryAndMap(
+         "SELECT itemName FROM UserFavorites WHERE login = ? ORDER BY itemName",
+         rs -> rs.getString(1), login);
+   }//end of
+
+   /**
+    * @param esql the database
+    * @param itemName the menu item
+    * @return logins of the users who favorite the item, in login order
+    * @throws java.sql.SQLException when the query fails
+    */
+   public static List<String> customersOf (Cafe esql, String itemName) throws SQLException {
+      return esql.executeQueryAndMap(
+         "SELECT login FROM UserFavorites WHERE itemName = ? ORDER BY login",
+         rs -> rs.getString(1), itemName);
+   }//end customersOf
+
+   /**
+    * @param esql the database
+    * @param login the user
+    * @param itemName an item on the menu
+    * @return true if the item was added, false if it was a favorite already
+    * @throws java.sql.SQLException when the user or item does not exist
+    */
+   public static boolean add (Cafe esql, String login, String itemName) throws SQLException {
+      return esql.executeUpdate(
+         "INSERT INTO UserFavorites (login, itemName) VALUES (?, ?) ON CONFLICT DO NOTHING",
+         login, itemName) > 0;
+   }//end add
+
+   /**
+    * @param esql the database
+    * @param login the user
+    * @param itemName the item to remove
+    * @return true if the item was removed, false if it was not a favorite
+    * @throws java.sql.SQLException when the statement fails
+    */
+   public static boolean remove (Cafe esql, String login, String itemName) throws SQLException {
+      return esql.executeUpdate(
+         "DELETE FROM UserFavorites WHERE login = ? AND itemName = ?",
+         login, itemName) > 0;
+   }//end remove
+
+}//end Favorites
@@ -0,0 +1,172 @@
+/*
+ * Template JAVA User Interface
+ * =============================
+ *
+ * Database Management Systems
+ * Department of Computer Science &amp; Engineering
+ * University of California - Riverside
+ *
+ * Target DBMS: 'Postgres'
+ *
+ */
+
+package cafe;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Latency distribution of one operation, such as a Cafe SQL method or a
+ * menu action. Times are counted in log-linear buckets, 16 per power of
+ * two, so every recorded time is known to within 1/16 (about 6%) from a
+ * nanosecond to the longest time a long can hold, in a fixed array.
+ * Recording is a few atomic increments: no lock and no allocation, from
+ * any number of threads. Reads take a Snapshot.
+ *
+ */
+public class LatencyHistogram implements LatencyHistogramMXBean {
+
+   private static final int SUB_BITS = 4;
+   private static final int SUB_COUNT = 1 << SUB_BITS;
+   private static final int BUCKETS = (64 - SUB_BITS) * SUB_COUNT;
+
+   /**
+    * The counts of a histogram at one moment, or between two moments.
+    */
+   public static final class Snapshot {
+      private final long[] _counts;
+      private final long _count;
+      private final long _errors;
+      private final long _sumNanos;
+      private final long _maxNanos;
+
+      Snapshot (long[] counts, long errors, long sumNanos, long maxNanos) {
+         long count = 0;
+         for (long c : counts)
+            count += c;
+         this._counts = counts;
+         this._count = count;
+         this._errors = errors;
+         this._sumNanos = sumNanos;
+         this._maxNanos = maxNanos;
+      }
+
+      public long getCount () { return _count; }
+      public long getErrorCount () { return _errors; }
+      public long getMaxNanos () { return _maxNanos; }
+
+      public double getErrorRate () {
+         return _count == 0 ? 0.0 : (double) _errors / _count;
+      }
+
+      public double getMeanNanos () {
+         return _count == 0 ? 0.0 : (double) _sumNanos / _count;
+      }
+
+      /**
+       * @param quantile between 0 and 1, e.g. 0.99
+       * @return the highest time in the bucket holding that quantile, or 0
+       *         when nothing was recorded
+       */
+      public long percentileNanos (double quantile) {
+         if (_count == 0)
+            return 0;
+         long rank = Math.max(1, (long) Math.ceil(quantile * _count));
+         long seen = 0;
+         for (int i = 0; i < _counts.length; ++i) {
+            seen += _counts[i];
+            if (seen >= rank)
+               return Math.min(highest(i), _maxNanos);
+         }
+         return _maxNanos;
+      }
+
+      /**
+       * @param earlier a snapshot of the same histogram taken before this one
+       * @return what was recorded between the two; its maximum is the
+       *         highest bucket reached in between
+       */
+      public Snapshot since (Snapshot earlier) {
+         long[] counts = new long[_counts.length];
+         int top = -1;
+         for (int i = 0; i < counts.length; ++i) {
+            counts[i] = _counts[i] - earlier._counts[i];
+            if (counts[i] > 0)
+               top = i;
+         }
+         long max = top < 0 ? 0 : Math.min(highest(top), _maxNanos);
+         return new Snapshot(counts, _errors - earlier._errors, _sumNanos - earlier._sumNanos, max);
+      }
+   }//end Snapshot
+
+   private final String _name;
+   private final AtomicLongArray _counts = new AtomicLongArray(BUCKETS);
+   private final AtomicLong _errors = new AtomicLong();
+   private final AtomicLong _sumNanos = new AtomicLong();
+   private final AtomicLong _maxNanos = new AtomicLong();
+
+   public LatencyHistogram (String name) {
+      this._name = name;
+   }//end LatencyHistogram
+
+   public String getName () {
+      return _name;
+   }//end getName
+
+   /**
+    * Records one operation.
+    *
+    * @param nanos how long it took
+    * @param ok false when it failed
+    */
+   public void record (long nanos, boolean ok) {
+      if (nanos < 0)
+         nanos = 0;
+      _counts.incrementAndGet(bucket(nanos));
+      _sumNanos.addAndGet(nanos);
+      if (!ok)
+         _errors.incrementAndGet();
+      long max = _maxNanos.get();
+      while (nanos > max && !_maxNanos.compareAndSet(max, nanos))
+         max = _maxNanos.get();
+   }//end record
+
+   /**
+    * @return the counts so far; operations recorded meanwhile may be
+    *         partly included
+    */
+   public Snapshot snapshot () {
+      long[] counts = new long[BUCKETS];
+      for (int i = 0; i < BUCKETS; ++i)
+         counts[i] = _counts.get(i);
+      return new Snapshot(counts, _errors.get(), _sumNanos.get(), _maxNanos.get());
+   }//end snapshot
+
+   public long getCount () { return snapshot().getCount(); }
+   public long getErrorCount () { return _errors.get(); }
+   public double getErrorRate () { return snapshot().getErrorRate(); }
+   public double getMeanMillis () { return snapshot().getMeanNanos() / 1e6; }
+   public double getP50Millis () { return snapshot().percentileNanos(0.50) / 1e6; }
+   public double getP99Millis () { return snapshot().percentileNanos(0.99) / 1e6; }
+   public double getP999Millis () { return snapshot().percentileNanos(0.999) / 1e6; }
+   public double getMaxMillis () { return _maxNanos.get() / 1e6; }
+
+   // values below 2 * SUB_COUNT have a bucket each, then SUB_COUNT per power of two
+   static int bucket (long nanos) {
+      if (nanos < SUB_COUNT)
+         return (int) nanos;
+      int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+      int sub = (int) (nanos >>> (exponent - SUB_BITS)) & (SUB_COUNT - 1);
+      return (exponent - SUB_BITS + 1) * SUB_COUNT + sub;
+   }//end bucket
+
+   // the highest value that falls in bucket i
+   static long highest (int i) {
+      if (i < SUB_COUNT)
+         return i;
+      int exponent = i / SUB_COUNT + SUB_BITS - 1;
+      long lowest = (long) (SUB_COUNT + i % SUB_COUNT) << (exponent - SUB_BITS);
+      return lowest + (1L << (exponent - SUB_BITS)) - 1;
+   }//end highest
+
+}//end LatencyHistogram
@@ -0,0 +1,32 @@
+/*
+ * Template JAVA User Interface
+ * =============================
+ *
+ * Database Management Systems
+ * Department of Computer Science &amp; Engineering
+ * University of California - Riverside
+ *
+ * Target DBMS: 'Postgres'
+ *
+ */
+
+package cafe;
+
+/**
+ * What JMX clients (jconsole, VisualVM, a metrics agent) see of a
+ * LatencyHistogram, as cafe:type=Statement|Action,name=... beans. Values
+ * are since the start of the process; times are in milliseconds.
+ *
+ */
+public interface LatencyHistogramMXBean {
+
+   long getCount ();
+   long getErrorCount ();
+   double getErrorRate ();
+   double getMeanMillis ();
+   double getP50Millis ();
+   double getP99Millis ();
+   double getP999Millis ();
+   double getMaxMillis ();
+
+}//end LatencyHistogramMXBean
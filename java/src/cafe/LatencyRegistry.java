@@ -0,0 +1,73 @@
+/*
+ * Template JAVA User Interface
+ * =============================
+ *
+ * Database Management Systems
+ * Department of Computer Science &amp; Engineering
+ * University of California - Riverside
+ *
+ * Target DBMS: 'Postgres'
+ *
+ */
+
+package cafe;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * The latency histograms of one kind of operation (Statement, Action), by
+ * name. Each histogram is created on first use and registered with the
+ * platform MBean server as cafe:type=&lt;kind&gt;,name=&lt;name&gt;; later
+ * lookups of the same name are a map read.
+ *
+ */
+public class LatencyRegistry {
+
+   private final String _type;
+   private final Map<String, LatencyHistogram> _histograms = new ConcurrentHashMap<String, LatencyHistogram>();
+
+   /**
+    * @param type the kind of operation, the JMX type of its beans
+    */
+   public LatencyRegistry (String type) {
+      this._type = type;
+   }//end LatencyRegistry
+
+   public String getType () {
+      return _type;
+   }//end getType
+
+   /**
+    * @param name the operation
+    * @return its histogram, created and registered if it is new
+    */
+   public LatencyHistogram histogram (String name) {
+      LatencyHistogram histogram = _histograms.get(name);
+      return histogram != null ? histogram : _histograms.computeIfAbsent(name, this::create);
+   }//end histogram
+
+   /**
+    * @return every histogram so far, by name
+    */
+   public Map<String, LatencyHistogram> histograms () {
+      return new TreeMap<String, LatencyHistogram>(_histograms);
+   }//end histograms
+
+   private LatencyHistogram create (String name) {
+      LatencyHistogram histogram = new LatencyHistogram(name);
+      try {
+         ManagementFactory.getPlatformMBeanServer().registerMBean(histogram,
+            new ObjectName("cafe:type=" + _type + ",name=" + name));
+      }catch (JMException e) {
+         // still recorded, only not visible over JMX
+      }
+      return histogram;
+   }//end create
+
+}//end LatencyRegistry
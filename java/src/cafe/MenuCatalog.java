@@ -0,0 +1,151 @@
+/*
+ * Template JAVA User Interface
+ * =============================
+ *
+ * Database Management Systems
+ * Department of Computer Science &amp; Engineering
+ * University of California - Riverside
+ *
+ * Target DBMS: 'Postgres'
+ *
+ */
+
+package cafe;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory copy of the Menu table, indexed by item name, by type and for
+ * search (NameIndex).
+ * Readers see an immutable snapshot through a volatile reference and never
+ * lock; UpdateMenu writes through to the database first and then replaces
+ * the snapshot (copy-on-write), which is cheap for a table this small.
+ *
+ */
+public class MenuCatalog {
+
+   private static final String SELECT_MENU = "SELECT itemName, type, price, description, imageURL FROM Menu";
+
+   private static final class Snapshot {
+      final Map<String, MenuItem> byName;
+      final Map<String, List<MenuItem>> byType;
+      final NameIndex names;
+
+      Snapshot(Map<String, MenuItem> byName) {
+         Map<String, List<MenuItem>> types = new HashMap<String, List<MenuItem>>();
+         for (MenuItem item : byName.values())
+            types.computeIfAbsent(item.getType(), t -> new ArrayList<MenuItem>()).add(item);
+         for (Map.Entry<String, List<MenuItem>> e : types.entrySet())
+            e.setValue(Collections.unmodifiableList(e.getValue()));
+         this.byName = Collections.unmodifiableMap(byName);
+         this.byType = Collections.unmodifiableMap(types);
+         this.names = new NameIndex(byName.keySet());
+      }
+   }//end Snapshot
+
+   private volatile Snapshot _snapshot;
+
+   private MenuCatalog (Snapshot snapshot) {
+      this._snapshot = snapshot;
+   }//end MenuCatalog
+
+   /**
+    * Reads the whole Menu table into a new catalog.
+    *
+    * @param esql the database the menu is read from
+    * @return the loaded catalog
+    * @throws java.sql.SQLException when the menu cannot be read
+    */
+   public static MenuCatalog load (Cafe esql) throws SQLException {
+      Map<String, MenuItem> items = new HashMap<String, MenuItem>();
+      for (MenuItem item : esql.executeQueryAndMap(SELECT_MENU, MenuCatalog::toItem))
+         items.put(item.getItemName(), item);
+      return new MenuCatalog(new Snapshot(items));
+   }//end load
+
+   /**
+    * @param itemName exact (case-sensitive) item name
+    * @return the item, or null if it is not on the menu
+    */
+   public MenuItem find (String itemName) {
+      return _snapshot.byName.get(itemName);
+   }//end find
+
+   /**
+    * @param type exact (case-sensitive) item type
+    * @return the items of that type, empty if there are none
+    */
+   public List<MenuItem> findByType (String type) {
+      List<MenuItem> items = _snapshot.byType.get(type);
+      return items == null ? Collections.<MenuItem>emptyList() : items;
+   }//end findByType
+
+   /**
+    * Finds the items a user means by a name typed in any case, by the start
+    * of any word of it or misspelled (see NameIndex.search).
+    *
+    * @param query what the user typed
+    * @param limit the most items returned
+    * @return matching items, best first
+    */
+   public List<MenuItem> search (String query, int limit) {
+      Snapshot snapshot = _snapshot;
+      List<MenuItem> items = new ArrayList<MenuItem>();
+      for (String name : snapshot.names.search(query, limit))
+         items.add(snapshot.byName.get(name));
+      return items;
+   }//end search
+
+   /**
+    * @return every item on the menu
+    */
+   public Iterable<MenuItem> all () {
+      return _snapshot.byName.values();
+   }//end all
+
+   /**
+    * Re-reads one item after it was inserted or updated, or drops it from
+    * the catalog if it no longer exists.
+    *
+    * @param esql the database the item is read from
+    * @param itemName the item that changed
+    * @throws java.sql.SQLException when the item cannot be read
+    */
+   public void refresh (Cafe esql, String itemName) throws SQLException {
+      List<MenuItem> rows = esql.executeQueryAndMap(SELECT_MENU + " WHERE itemName=?", MenuCatalog::toItem, itemName);
+      if (rows.isEmpty())
+         remove(itemName);
+      else
+         put(rows.get(0));
+   }//end refresh
+
+   /**
+    * Removes an item after it was deleted from the Menu table.
+    *
+    * @param itemName the deleted item
+    */
+   public synchronized void remove (String itemName) {
+      if (!_snapshot.byName.containsKey(itemName))
+         return;
+      Map<String, MenuItem> items = new HashMap<String, MenuItem>(_snapshot.byName);
+      items.remove(itemName);
+      _snapshot = new Snapshot(items);
+   }//end remove
+
+   private synchronized void put (MenuItem item) {
+      Map<String, MenuItem> items = new HashMap<String, MenuItem>(_snapshot.byName);
+      items.put(item.getItemName(), item);
+      _snapshot = new Snapshot(items);
+   }//end put
+
+   private static MenuItem toItem (ResultSet rs) throws SQLException {
+      return new MenuItem(rs.getString(1), rs.getString(2), rs.getFloat(3), rs.getString(4), rs.getString(5));
+   }//end toItem
+
+}//end MenuCatalog
@@ -0,0 +1,41 @@
+/*
+ * Template JAVA User Interface
+ * =============================
+ *
+ * Database Management Systems
+ * Department of Computer Science &amp; Engineering
+ * University of California - Riverside
+ *
+ * Target DBMS: 'Postgres'
+ *
+ */
+
+package cafe;
+
+/**
+ * One immutable row of the Menu table.
+ *
+ */
+public class MenuItem {
+
+   private final String _itemName;
+   private final String _type;
+   private final float _price;
+   private final String _description;
+   private final String _imageURL;
+
+   public MenuItem (String itemName, String type, float price, String description, String imageURL) {
+      this._itemName = itemName;
+      this._type = type;
+      this._price = price;
+      this._description = description;
+      this._imageURL = imageURL;
+   }//end MenuItem
+
+   public String getItemName () { return _itemName; }
+   public String getType () { return _type; }
+   public float getPrice () { return _price; }
+   public String getDescription () { return _description; }
+   public String getImageURL () { return _imageURL; }
+
+}//end MenuItem
@@ -0,0 +1,125 @@
+/*
+ * Template JAVA User Interface
+ * =============================
+ *
+ * Database Management Systems
+ * Department of Computer Science &amp; Engineering
+ * University of California - Riverside
+ *
+ * Target DBMS: 'Postgres'
+ *
+ */
+
+package cafe;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Appends the latency histograms to a CSV file periodically, one line per
+ * operation that ran in the period, with the count, errors and percentiles
+ * of that period alone. Started by cafe.metrics.file (no dumps when unset)
+ * and cafe.metrics.periodSeconds (default 60); the last period is written
+ * on close().
+ *
+ */
+public final class MetricsDumper implements AutoCloseable {
+
+   private static final String HEADER =
+      "time,type,name,count,errors,error_rate,mean_ms,p50_ms,p99_ms,p999_ms,max_ms";
+
+   private final File _file;
+   private final List<LatencyRegistry> _registries;
+   private final ScheduledExecutorService _timer;
+   // the snapshot each period is measured from, by type and name
+   private final Map<String, LatencyHistogram.Snapshot> _previous = new HashMap<String, LatencyHistogram.Snapshot>();
+
+   /**
+    * @param file the CSV file appended to
+    * @param registries the histograms written
+    * @param periodSeconds time between dumps
+    */
+   public MetricsDumper (File file, List<LatencyRegistry> registries, long periodSeconds) {
+      this._file = file;
+      this._registries = registries;
+      this._timer = Executors.newSingleThreadScheduledExecutor(r -> {
+         Thread t = new Thread(r, "cafe-metrics");
+         t.setDaemon(true);
+         return t;
+      });
+      this._timer.scheduleWithFixedDelay(this::run, periodSeconds, periodSeconds, TimeUnit.SECONDS);
+   }//end MetricsDumper
+
+   /**
+    * Starts dumping the Cafe statement and action latencies as the
+    * cafe.metrics.* system properties say.
+    *
+    * @return the running dumper, or null when cafe.metrics.file is not set
+    */
+   public static MetricsDumper fromSystemProperties () {
+      String file = System.getProperty("cafe.metrics.file");
+      if (file == null || file.isEmpty())
+         return null;
+      return new MetricsDumper(new File(file),
+                               List.of(Cafe.getStatementLatency(), Cafe.getActionLatency()),
+                               Long.getLong("cafe.metrics.periodSeconds", 60L));
+   }//end fromSystemProperties
+
+   /**
+    * Writes what ran since the last dump.
+    *
+    * @throws java.io.IOException when the file cannot be written
+    */
+   public synchronized void dump () throws IOException {
+      boolean fresh = !_file.exists() || _file.length() == 0;
+      String now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS).toString();
+      try (PrintWriter out = new PrintWriter(new BufferedWriter(new FileWriter(_file, true)))) {
+         if (fresh)
+            out.println(HEADER);
+         for (LatencyRegistry registry : _registries) {
+            for (Map.Entry<String, LatencyHistogram> e : registry.histograms().entrySet()) {
+               String key = registry.getType() + "/" + e.getKey();
+               LatencyHistogram.Snapshot total = e.getValue().snapshot();
+               LatencyHistogram.Snapshot previous = _previous.put(key, total);
+               LatencyHistogram.Snapshot period = previous == null ? total : total.since(previous);
+               if (period.getCount() == 0)
+                  continue;
+               out.printf(Locale.ROOT, "%s,%s,%s,%d,%d,%.5f,%.3f,%.3f,%.3f,%.3f,%.3f%n", now, registry.getType(), e.getKey(),
+                          period.getCount(), period.getErrorCount(), period.getErrorRate(),
+                          period.getMeanNanos() / 1e6, period.percentileNanos(0.50) / 1e6,
+                          period.percentileNanos(0.99) / 1e6, period.percentileNanos(0.999) / 1e6,
+                          period.getMaxNanos() / 1e6);
+            }
+         }//end for
+      }
+   }//end dump
+
+   private void run () {
+      try {
+         dump();
+      }catch (IOException e) {
+         System.err.println("Metrics dump failed: " + e.getMessage());
+      }
+   }//end run
+
+   /**
+    * Stops the periodic dumps after writing the last period.
+    */
+   public void close () {
+      _timer.shutdownNow();
+      run();
+   }//end close
+
+}//end MetricsDumper
@@ -0,0 +1,224 @@
+/*
+ * Template JAVA User Interface
+ * =============================
+ *
+ * Database Management Systems
+ * Department of Computer Science &amp; Engineering
+ * University of California - Riverside
+ *
+ * Target DBMS: 'Postgres'
+ *
+ */
+
+package cafe;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Case-insensitive search over a fixed set of names, such as the menu
+ * items. A trie over the start of every word of every name answers prefix
+ * searches ("lat", "soup") by walking the prefix, whatever the number of
+ * names; names that share no prefix with the query are ranked by trigram
+ * similarity, the measure of pg_trgm, to catch typos ("capucino").
+ *
+ */
+public class NameIndex {
+
+   // pg_trgm's default similarity_threshold
+   public static final double SIMILARITY_THRESHOLD = 0.3;
+
+   private static final char[] NO_LABELS = new char[0];
+   private static final Node[] NO_CHILDREN = new Node[0];
+
+   // every key under a node shares its prefix and sits in [from, to) of _keys
+   private static final class Node {
+      final int from;
+      final int to;
+      char[] labels = NO_LABELS;
+      Node[] children = NO_CHILDREN;
+
+      Node(int from, int to) {
+         this.from = from;
+         this.to = to;
+      }
+   }//end Node
+
+   private final String[] _names;
+   // lower-case name to the names spelled that way in any case
+   private final Map<String, List<String>> _exact = new HashMap<String, List<String>>();
+   // lower-case suffixes of each name starting at a word, sorted, and their names
+   private final String[] _keys;
+   private final int[] _owners;
+   private final Node _root;
+   // trigram to the names containing it, and the trigram count of each name
+   private final Map<String, List<Integer>> _postings = new HashMap<String, List<Integer>>();
+   private final int[] _trigramCounts;
+
+   /**
+    * @param names the names to search, each once
+    */
+   public NameIndex (Collection<String> names) {
+      this._names = names.toArray(new String[0]);
+      Arrays.sort(_names);
+
+      List<String> keys = new ArrayList<String>();
+      List<Integer> owners = new ArrayList<Integer>();
+      _trigramCounts = new int[_names.length];
+      for (int i = 0; i < _names.length; ++i) {
+         String lower = lower(_names[i]);
+         _exact.computeIfAbsent(lower, k -> new ArrayList<String>(1)).add(_names[i]);
+         for (int p = 0; p < lower.length(); ++p)
+            if (Character.isLetterOrDigit(lower.charAt(p))
+                && (p == 0 || !Character.isLetterOrDigit(lower.charAt(p - 1)))) {
+               keys.add(lower.substring(p));
+               owners.add(i);
+            }
+         Set<String> trigrams = trigrams(lower);
+         _trigramCounts[i] = trigrams.size();
+         for (String t : trigrams)
+            _postings.computeIfAbsent(t, k -> new ArrayList<Integer>()).add(i);
+      }//end for
+
+      Integer[] order = new Integer[keys.size()];
+      for (int i = 0; i < order.length; ++i)
+         order[i] = i;
+      Arrays.sort(order, (a, b) -> keys.get(a).compareTo(keys.get(b)));
+      _keys = new String[order.length];
+      _owners = new int[order.length];
+      for (int i = 0; i < order.length; ++i) {
+         _keys[i] = keys.get(order[i]);
+         _owners[i] = owners.get(order[i]);
+      }
+      _root = build(0, _keys.length, 0);
+   }//end NameIndex
+
+   /**
+    * Finds the names a user most likely means: the names equal to the query
+    * in any case if there are some, otherwise the names with a word
+    * starting with it, otherwise the names spelled most like it.
+    *
+    * @param query what the user typed
+    * @param limit the most names returned
+    * @return matching names, best first
+    */
+   public List<String> search (String query, int limit) {
+      String key = lower(query.trim());
+      if (key.isEmpty())
+         return Collections.emptyList();
+      List<String> exact = _exact.get(key);
+      if (exact != null)
+         return exact.size() <= limit ? exact : exact.subList(0, limit);
+      List<String> prefixed = withPrefix(key, limit);
+      return prefixed.isEmpty() ? similar(key, limit) : prefixed;
+   }//end search
+
+   /**
+    * @param prefix the start of a word, in any case
+    * @param limit the most names returned
+    * @return names with a word starting with prefix, those starting with it
+    *         first, then in name order
+    */
+   public List<String> withPrefix (String prefix, int limit) {
+      String key = lower(prefix);
+      Node node = _root;
+      for (int i = 0; i < key.length() && node != null; ++i) {
+         int child = Arrays.binarySearch(node.labels, key.charAt(i));
+         node = child < 0 ? null : node.children[child];
+      }
+      if (node == null)
+         return Collections.emptyList();
+      // every match is ranked before the limit applies, so a name starting
+      // with the prefix is never cut for one that only has a later word with it
+      Set<Integer> found = new TreeSet<Integer>();
+      for (int i = node.from; i < node.to; ++i)
+         found.add(_owners[i]);
+      List<String> names = new ArrayList<String>(found.size());
+      for (int i : found)
+         names.add(_names[i]);
+      // names starting with the prefix before names with a later word starting with it
+      names.sort((a, b) -> Boolean.compare(!lower(a).startsWith(key), !lower(b).startsWith(key)));
+      return names.size() <= limit ? names : new ArrayList<String>(names.subList(0, limit));
+   }//end withPrefix
+
+   /**
+    * @param query a name, possibly misspelled
+    * @param limit the most names returned
+    * @return names at least SIMILARITY_THRESHOLD similar to query, most similar first
+    */
+   public List<String> similar (String query, int limit) {
+      Set<String> trigrams = trigrams(lower(query));
+      Map<Integer, Integer> common = new HashMap<Integer, Integer>();
+      for (String t : trigrams)
+         for (int i : _postings.getOrDefault(t, Collections.<Integer>emptyList()))
+            common.merge(i, 1, Integer::sum);
+      List<double[]> scored = new ArrayList<double[]>();
+      for (Map.Entry<Integer, Integer> e : common.entrySet()) {
+         int shared = e.getValue();
+         double similarity = (double) shared / (trigrams.size() + _trigramCounts[e.getKey()] - shared);
+         if (similarity >= SIMILARITY_THRESHOLD)
+            scored.add(new double[] { similarity, e.getKey() });
+      }
+      scored.sort((a, b) -> a[0] != b[0] ? Double.compare(b[0], a[0]) : Double.compare(a[1], b[1]));
+      List<String> names = new ArrayList<String>();
+      for (int i = 0; i < scored.size() && i < limit; ++i)
+         names.add(_names[(int) scored.get(i)[1]]);
+      return names;
+   }//end similar
+
+   public int size () {
+      return _names.length;
+   }//end size
+
+   // the node for keys [from, to), which share their first depth characters
+   private Node build (int from, int to, int depth) {
+      Node node = new Node(from, to);
+      // keys that end here sort before the longer ones
+      int i = from;
+      while (i < to && _keys[i].length() == depth)
+         ++i;
+      List<Node> children = new ArrayList<Node>();
+      StringBuilder labels = new StringBuilder();
+      while (i < to) {
+         char c = _keys[i].charAt(depth);
+         int j = i;
+         while (j < to && _keys[j].charAt(depth) == c)
+            ++j;
+         labels.append(c);
+         children.add(build(i, j, depth + 1));
+         i = j;
+      }
+      if (!children.isEmpty()) {
+         node.labels = labels.toString().toCharArray();
+         node.children = children.toArray(NO_CHILDREN);
+      }
+      return node;
+   }//end build
+
+   // trigrams of each word as pg_trgm forms them: two blanks before, one after
+   private static Set<String> trigrams (String lower) {
+      Set<String> trigrams = new LinkedHashSet<String>();
+      for (String word : lower.split("[^\\p{L}\\p{N}]+")) {
+         if (word.isEmpty())
+            continue;
+         String padded = "  " + word + " ";
+         for (int i = 0; i + 3 <= padded.length(); ++i)
+            trigrams.add(padded.substring(i, i + 3));
+      }
+      return trigrams;
+   }//end trigrams
+
+   private static String lower (String s) {
+      return s.toLowerCase(Locale.ROOT);
+   }//end lower
+
+}//end NameIndex
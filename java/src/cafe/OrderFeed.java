@@ -0,0 +1,175 @@
+/*
+ * Template JAVA User Interface
+ * =============================
+ *
+ * Database Management Systems
+ * Department of Computer Science &amp; Engineering
+ * University of California - Riverside
+ *
+ * Target DBMS: 'Postgres'
+ *
+ */
+
+package cafe;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+
+/**
+ * Keeps ActiveOrders current with the changes of every client, from the
+ * notifications of create_notify.sql. A listener thread LISTENs on its own
+ * connection, outside the pool, reloads the active orders and then applies
+ * every change as it is published. After a lost connection or a bulk
+ * change it reloads them again.
+ *
+ */
+public class OrderFeed implements AutoCloseable {
+
+   public static final String CHANNEL = "cafe_orders";
+
+   // how long a wait for notifications lasts before close() is noticed
+   private static final int POLL_MILLIS = 1000;
+
+   private static final long RETRY_MILLIS = 5000;
+
+   /**
+    * Told about orders as they are placed, on the feed's thread.
+    */
+   public interface Listener {
+      void orderPlaced (ActiveOrder order);
+   }
+
+   private final Cafe _esql;
+   private final ActiveOrders _orders;
+   private final Thread _thread;
+   private final List<Listener> _listeners = new CopyOnWriteArrayList<Listener>();
+   private volatile boolean _live = false;
+   private volatile boolean _closed = false;
+
+   /**
+    * Starts listening on a connection of its own.
+    *
+    * @param esql the database to follow
+    * @param orders the index to keep current
+    */
+   public OrderFeed (Cafe esql, ActiveOrders orders) {
+      this._esql = esql;
+      this._orders = orders;
+      this._thread = new Thread(this::run, "cafe-order-feed");
+      this._thread.setDaemon(true);
+      this._thread.start();
+   }//end OrderFeed
+
+   /**
+    * @return true while the feed is listening and the index is up to date
+    */
+   public boolean isLive () {
+      return _live;
+   }//end isLive
+
+   public void addListener (Listener listener) { _listeners.add(listener); }
+   public void removeListener (Listener listener) { _listeners.remove(listener); }
+
+   /**
+    * Stops listening and closes the feed's connection.
+    */
+   public void close () {
+      _closed = true;
+      _live = false;
+      _thread.interrupt();
+   }//end close
+
+   private void run () {
+      while (!_closed) {
+         try (Connection conn = DriverManager.getConnection(_esql.getPool().getUrl())) {
+            PGConnection pg = conn.unwrap(PGConnection.class);
+            try (Statement stmt = conn.createStatement()) {
+               stmt.execute("LISTEN " + CHANNEL);
+            }
+            // changes committed while reading are queued and applied after
+            _orders.reload(_esql);
+            _live = true;
+            while (!_closed) {
+               PGNotification[] notifications = pg.getNotifications(POLL_MILLIS);
+               if (notifications != null)
+                  apply(notifications);
+            }//end while
+         }catch (SQLException e) {
+            _live = false;
+            if (_closed)
+               return;
+            System.err.println("Order feed disconnected: " + e.getMessage());
+            try {
+               Thread.sleep(RETRY_MILLIS);
+            }catch (InterruptedException ie) {
+               return;
+            }
+         }
+      }//end while
+   }//end run
+
+   private void apply (PGNotification[] notifications) throws SQLException {
+      // orders are announced once the whole transaction, items included, is in
+      List<Integer> placed = new ArrayList<Integer>();
+      for (PGNotification n : notifications) {
+         String payload = n.getParameter();
+         // the item name comes last and may contain the separator
+         String[] f = payload.split(";", payload.startsWith("remove;") ? 3 : 4);
+         try {
+            applyOne(f, placed);
+         }catch (RuntimeException e) {
+            System.err.println("Order feed ignored '" + payload + "': " + e);
+         }
+      }//end for
+      for (Integer orderid : placed) {
+         ActiveOrder order = _orders.find(orderid);
+         if (order != null)
+            for (Listener listener : _listeners)
+               listener.orderPlaced(order);
+      }
+   }//end apply
+
+   private void applyOne (String[] f, List<Integer> placed) throws SQLException {
+      switch (f[0]) {
+         case "order":
+            int orderid = Integer.parseInt(f[1]);
+            if (f[2].equals("t"))
+               _orders.remove(orderid);
+            else if (_orders.placed(new ActiveOrder(orderid, Timestamp.valueOf(f[3]).toLocalDateTime(),
+                                                    new LinkedHashMap<String, String>())))
+               placed.add(orderid);
+            break;
+         case "unpaid":
+            // the order comes back with the items it has now
+            _orders.refresh(_esql, Integer.parseInt(f[1]));
+            break;
+         case "delete":
+            _orders.remove(Integer.parseInt(f[1]));
+            break;
+         case "item":
+            // items of orders that are not active are of no interest
+            _orders.itemStatus(Integer.parseInt(f[1]), f[3], f[2]);
+            break;
+         case "remove":
+            _orders.itemRemoved(Integer.parseInt(f[1]), f[2]);
+            break;
+         case "reload":
+            _orders.reload(_esql);
+            placed.clear();
+            break;
+         default:
+            break;
+      }//end switch
+   }//end applyOne
+
+}//end OrderFeed
@@ -0,0 +1,185 @@
+/*
+ * Template JAVA User Interface
+ * =============================
+ *
+ * Database Management Systems
+ * Department of Computer Science &amp; Engineering
+ * University of California - Riverside
+ *
+ * Target DBMS: 'Postgres'
+ *
+ */
+
+package cafe;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A customer's orders, newest first, one page at a time. Pages are found by
+ * seeking orders_login_orderid_idx from the orderid at the edge of the page
+ * on screen (keyset pagination), never with OFFSET, so a page deep in a long
+ * history costs the same as the first one. Optional date bounds also prune
+ * the weekly Orders partitions.
+ *
+ */
+public class OrderHistory {
+
+   public static final int PAGE_SIZE = Integer.getInteger("cafe.historyPageSize", 10);
+
+   /**
+    * One order of a page.
+    */
+   public static final class Entry {
+      private final int _orderid;
+      private final LocalDateTime _received;
+      private final float _total;
+      private final boolean _paid;
+
+      Entry (int orderid, LocalDateTime received, float total, boolean paid) {
+         this._orderid = orderid;
+         this._received = received;
+         this._total = total;
+         this._paid = paid;
+      }
+
+      public int getOrderid () { return _orderid; }
+      public LocalDateTime getReceived () { return _received; }
+      public float getTotal () { return _total; }
+      public boolean isPaid () { return _paid; }
+   }//end Entry
+
+   /**
+    * One page of orders, newest first, and whether there are more on
+    * either side.
+    */
+   public static final class Page {
+      private final List<Entry> _entries;
+      private final boolean _hasOlder;
+      private final boolean _hasNewer;
+
+      Page (List<Entry> entries, boolean hasOlder, boolean hasNewer) {
+         this._entries = Collections.unmodifiableList(entries);
+         this._hasOlder = hasOlder;
+         this._hasNewer = hasNewer;
+      }
+
+      public List<Entry> getEntries () { return _entries; }
+      public boolean hasOlder () { return _hasOlder; }
+      public boolean hasNewer () { return _hasNewer; }
+
+      /**
+       * @return the sum of the order totals on this page
+       */
+      public float getTotal () {
+         float total = 0;
+         for (Entry e : _entries)
+            total += e.getTotal();
+         return total;
+      }
+
+      /**
+       * @return the newest orderid on the page, or 0 when it is empty
+       */
+      public int getFirstOrderid () {
+         return _entries.isEmpty() ? 0 : _entries.get(0).getOrderid();
+      }
+
+      /**
+       * @return the oldest orderid on the page, or 0 when it is empty
+       */
+      public int getLastOrderid () {
+         return _entries.isEmpty() ? 0 : _entries.get(_entries.size() - 1).getOrderid();
+      }
+   }//end Page
+
+   private final Cafe _esql;
+   private final String _login;
+   private final LocalDateTime _from;
+   private final LocalDateTime _to;
+   private final int _pageSize;
+
+   /**
+    * @param esql the database
+    * @param login the customer
+    * @param from earliest order time shown, or null
+    * @param to orders from this time on are not shown, or null
+    * @param pageSize orders per page
+    */
+   public OrderHistory (Cafe esql, String login, LocalDateTime from, LocalDateTime to, int pageSize) {
+      this._esql = esql;
+      this._login = login;
+      this._from = from;
+      this._to = to;
+      this._pageSize = pageSize;
+   }//end OrderHistory
+
+   /**
+    * @return the newest orders
+    * @throws java.sql.SQLException when the query fails
+    */
+   public Page newest () throws SQLException {
+      List<Entry> rows = seek(null, false);
+      return new Page(trim(rows), rows.size() > _pageSize, false);
+   }//end newest
+
+   /**
+    * @param page the page on screen
+    * @return the orders just older than the page
+    * @throws java.sql.SQLException when the query fails
+    */
+   public Page older (Page page) throws SQLException {
+      if (page.getEntries().isEmpty())
+         return newest();
+      List<Entry> rows = seek(page.getLastOrderid(), false);
+      return new Page(trim(rows), rows.size() > _pageSize, true);
+   }//end older
+
+   /**
+    * @param page the page on screen
+    * @return the orders just newer than the page
+    * @throws java.sql.SQLException when the query fails
+    */
+   public Page newer (Page page) throws SQLException {
+      if (page.getEntries().isEmpty())
+         return newest();
+      // read upwards from the page, then show newest first again
+      List<Entry> rows = seek(page.getFirstOrderid(), true);
+      List<Entry> entries = trim(rows);
+      Collections.reverse(entries);
+      return new Page(entries, true, rows.size() > _pageSize);
+   }//end newer
+
+   // up to one row more than a page, from the keyset on in the given direction
+   private List<Entry> seek (Integer orderid, boolean upwards) throws SQLException {
+      StringBuilder query = new StringBuilder(
+         "SELECT orderid, timeStampRecieved, total, paid FROM Orders WHERE login = ?");
+      List<Object> params = new ArrayList<Object>();
+      params.add(_login);
+      if (orderid != null) {
+         query.append(upwards ? " AND orderid > ?" : " AND orderid < ?");
+         params.add(orderid);
+      }
+      if (_from != null) {
+         query.append(" AND timeStampRecieved >= ?");
+         params.add(_from);
+      }
+      if (_to != null) {
+         query.append(" AND timeStampRecieved < ?");
+         params.add(_to);
+      }
+      query.append(upwards ? " ORDER BY orderid ASC" : " ORDER BY orderid DESC").append(" LIMIT ?");
+      params.add(_pageSize + 1);
+      return _esql.executeQueryAndMap(query.toString(),
+         rs -> new Entry(rs.getInt(1), rs.getObject(2, LocalDateTime.class), rs.getFloat(3), rs.getBoolean(4)),
+         params.toArray());
+   }//end seek
+
+   private List<Entry> trim (List<Entry> rows) {
+      return new ArrayList<Entry>(rows.subList(0, Math.min(_pageSize, rows.size())));
+   }//end trim
+
+}//end OrderHistory
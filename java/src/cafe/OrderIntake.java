@@ -0,0 +1,563 @@
+/*
+ * Template JAVA User Interface
+ * =============================
+ *
+ * Database Management Systems
+ * Department of Computer Science &amp; Engineering
+ * University of California - Riverside
+ *
+ * Target DBMS: 'Postgres'
+ *
+ */
+
+package cafe;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Group commit for the order writes of every session. Sessions queue new
+ * orders, item status changes and payments; one writer thread takes
+ * whatever is queued, waiting a little for more, and writes it in one
+ * transaction, so a rush of sessions shares one commit (and one WAL flush)
+ * per batch instead of paying one each. Each caller waits on its own
+ * future. Requests are committed with the synchronous_commit of their
+ * DurabilityPolicy, one transaction per setting in a batch. When a
+ * transaction fails, its requests are retried one transaction each, so one
+ * bad request fails alone.
+ *
+ */
+public class OrderIntake implements AutoCloseable {
+
+   // how long the writer waits for work before it checks for close()
+   private static final long POLL_MILLIS = 200;
+
+   // one orderid per new order and the time they are all stamped with
+   private static final String RESERVE_ORDERS =
+      "SELECT nextval(pg_get_serial_sequence('orders', 'orderid')), statement_timestamp()::timestamp "
+    + "FROM generate_series(1, ?)";
+   private static final String INSERT_ORDER =
+      "INSERT INTO Orders (orderid, login, paid, timeStampRecieved, total) VALUES (?, ?, 'false', ?, 0)";
+   // the ItemStatus triggers of create_triggers.sql fill in prices and totals
+   private static final String INSERT_ITEM =
+      "INSERT INTO ItemStatus (orderid, itemName, lastUpdated, status, orderReceived) "
+    + "VALUES (?, ?, statement_timestamp(), 'Hasn''t Started', ?)";
+   private static final String UPDATE_STATUS =
+      "UPDATE ItemStatus SET status = ?, lastUpdated = statement_timestamp() WHERE orderid = ? AND itemName = ?";
+   private static final String UPDATE_PAID =
+      "UPDATE Orders SET paid = ? WHERE orderid = ?";
+   // the order's time limits them to its partition: the time the active
+   // orders know, or else the orderid again to look it up
+   private static final String UPDATE_STATUS_RECEIVED = UPDATE_STATUS + " AND orderReceived = ?";
+   private static final String UPDATE_PAID_RECEIVED = UPDATE_PAID + " AND timeStampRecieved = ?";
+   private static final String UPDATE_STATUS_LOOKUP = UPDATE_STATUS + " AND orderReceived = " + Cafe.ORDER_TIME;
+   private static final String UPDATE_PAID_LOOKUP = UPDATE_PAID + " AND timeStampRecieved = " + Cafe.ORDER_TIME;
+
+   // how long callers wait for their writes, next to the Cafe SQL methods
+   private static final LatencyHistogram ORDER_LATENCY = Cafe.getStatementLatency().histogram("intakePlaceOrder");
+   private static final LatencyHistogram STATUS_LATENCY = Cafe.getStatementLatency().histogram("intakeUpdateStatus");
+   private static final LatencyHistogram PAID_LATENCY = Cafe.getStatementLatency().histogram("intakeUpdatePaid");
+
+   // a queued write and the future of its caller
+   private abstract static class Request {
+      final CompletableFuture<Integer> result = new CompletableFuture<Integer>();
+      final DurabilityPolicy policy;
+      // filled in by the writer: the new orderid or the rows changed
+      int value;
+
+      Request(DurabilityPolicy policy) {
+         this.policy = policy;
+      }
+   }//end Request
+
+   private static final class NewOrder extends Request {
+      final String login;
+      final List<String> items;
+      LocalDateTime received;
+
+      NewOrder(String login, List<String> items) {
+         super(DurabilityPolicy.ORDER);
+         this.login = login;
+         this.items = items;
+      }
+   }//end NewOrder
+
+   private static final class StatusChange extends Request {
+      final int orderid;
+      // the order's time, or null when it is not known
+      final LocalDateTime received;
+      final String itemName;
+      final String status;
+
+      StatusChange(int orderid, LocalDateTime received, String itemName, String status) {
+         super(DurabilityPolicy.ITEM_STATUS);
+         this.orderid = orderid;
+         this.received = received;
+         this.itemName = itemName;
+         this.status = status;
+      }
+   }//end StatusChange
+
+   private static final class PaidChange extends Request {
+      final int orderid;
+      final LocalDateTime received;
+      final boolean paid;
+
+      PaidChange(int orderid, LocalDateTime received, boolean paid) {
+         super(DurabilityPolicy.PAYMENT);
+         this.orderid = orderid;
+         this.received = received;
+         this.paid = paid;
+      }
+   }//end PaidChange
+
+   private final Cafe _esql;
+   private final ConnectionPool _pool;
+   private final ActiveOrders _active;
+   private final BlockingQueue<Request> _queue;
+   private final int _maxBatch;
+   private final long _lingerNanos;
+   private final Thread _writer;
+   private volatile boolean _closed = false;
+
+   // intake metrics
+   private final AtomicLong _requests = new AtomicLong();
+   private final AtomicLong _batches = new AtomicLong();
+   private final AtomicLong _batchedRequests = new AtomicLong();
+   private final AtomicLong _maxBatchSize = new AtomicLong();
+   private final AtomicLong _maxQueueDepth = new AtomicLong();
+   private final AtomicLong _retried = new AtomicLong();
+   private final AtomicLong _failed = new AtomicLong();
+
+   /**
+    * Starts the writer thread.
+    *
+    * @param esql the database written to
+    * @param active the active orders kept current after each commit, or null
+    * @param capacity requests queued at most; submitters wait beyond it
+    * @param maxBatch requests written in one transaction at most
+    * @param lingerMillis how long a batch waits for more requests
+    */
+   public OrderIntake (Cafe esql, ActiveOrders active, int capacity, int maxBatch, long lingerMillis) {
+      this._esql = esql;
+      this._pool = esql.getPool();
+      this._active = active;
+      this._queue = new ArrayBlockingQueue<Request>(capacity);
+      this._maxBatch = maxBatch;
+      this._lingerNanos = TimeUnit.MILLISECONDS.toNanos(lingerMillis);
+      this._writer = new Thread(this::run, "cafe-order-intake");
+      this._writer.setDaemon(true);
+      this._writer.start();
+   }//end OrderIntake
+
+   /**
+    * Starts an intake sized by the cafe.intake.queue (default 1024),
+    * cafe.intake.maxBatch (default 128) and cafe.intake.lingerMs (default
+    * 2) system properties.
+    *
+    * @param esql the database written to
+    * @param active the active orders kept current, or null
+    * @return the running intake
+    */
+   public static OrderIntake fromSystemProperties (Cafe esql, ActiveOrders active) {
+      return new OrderIntake(esql, active,
+                             Integer.getInteger("cafe.intake.queue", 1024),
+                             Integer.getInteger("cafe.intake.maxBatch", 128),
+                             Long.getLong("cafe.intake.lingerMs", 2L));
+   }//end fromSystemProperties
+
+   /**
+    * Queues a new order.
+    *
+    * @param login the customer
+    * @param items the items ordered, each once
+    * @return completes with the new orderid once the order is committed
+    * @throws java.sql.SQLException when the intake is closed
+    */
+   public CompletableFuture<Integer> submitOrder (String login, List<String> items) throws SQLException {
+      return submit(new NewOrder(login, new ArrayList<String>(items)));
+   }//end submitOrder
+
+   /**
+    * Queues an item status change.
+    *
+    * @param orderid the order
+    * @param itemName the item
+    * @param status its new status
+    * @return completes with the number of rows changed once committed
+    * @throws java.sql.SQLException when the intake is closed
+    */
+   public CompletableFuture<Integer> submitStatus (int orderid, String itemName, String status) throws SQLException {
+      return submit(new StatusChange(orderid, received(orderid), itemName, status));
+   }//end submitStatus
+
+   /**
+    * Queues marking an order paid or unpaid.
+    *
+    * @param orderid the order
+    * @param paid its new payment status
+    * @return completes with the number of rows changed once committed
+    * @throws java.sql.SQLException when the intake is closed
+    */
+   public CompletableFuture<Integer> submitPaid (int orderid, boolean paid) throws SQLException {
+      return submit(new PaidChange(orderid, received(orderid), paid));
+   }//end submitPaid
+
+   /**
+    * Places an order and waits for its commit.
+    *
+    * @param login the customer
+    * @param items the items ordered, each once
+    * @return the new orderid
+    * @throws java.sql.SQLException when the order could not be written
+    */
+   public int placeOrder (String login, List<String> items) throws SQLException {
+      return await(ORDER_LATENCY, System.nanoTime(), submitOrder(login, items));
+   }//end placeOrder
+
+   /**
+    * Changes an item's status and waits for the commit.
+    *
+    * @return the number of rows changed, 0 when the order has no such item
+    * @throws java.sql.SQLException when the change could not be written
+    */
+   public int updateStatus (int orderid, String itemName, String status) throws SQLException {
+      return await(STATUS_LATENCY, System.nanoTime(), submitStatus(orderid, itemName, status));
+   }//end updateStatus
+
+   /**
+    * Marks an order paid or unpaid and waits for the commit.
+    *
+    * @return the number of rows changed, 0 when there is no such order
+    * @throws java.sql.SQLException when the change could not be written
+    */
+   public int updatePaid (int orderid, boolean paid) throws SQLException {
+      return await(PAID_LATENCY, System.nanoTime(), submitPaid(orderid, paid));
+   }//end updatePaid
+
+   /**
+    * Writes what is queued and stops the writer. Later submissions fail.
+    */
+   public void close () {
+      _closed = true;
+      try {
+         _writer.join();
+      }catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+      }
+      // anything queued while the writer stopped
+      List<Request> left = new ArrayList<Request>();
+      _queue.drainTo(left);
+      for (Request r : left)
+         r.result.completeExceptionally(new SQLException("Order intake is closed"));
+   }//end close
+
+   public int getQueueDepth () { return _queue.size(); }
+   public long getMaxQueueDepth () { return _maxQueueDepth.get(); }
+   public long getRequestCount () { return _requests.get(); }
+   public long getBatchCount () { return _batches.get(); }
+   public long getMaxBatchSize () { return _maxBatchSize.get(); }
+   public long getRetriedCount () { return _retried.get(); }
+   public long getFailedCount () { return _failed.get(); }
+
+   /**
+    * @return the average number of requests committed together
+    */
+   public double getAverageBatchSize () {
+      long batches = _batches.get();
+      return batches == 0 ? 0.0 : (double) _batchedRequests.get() / batches;
+   }//end getAverageBatchSize
+
+   /**
+    * @return a one-line summary of the queue and batch metrics
+    */
+   public String stats () {
+      return String.format("intake[queue=%d maxQueue=%d requests=%d batches=%d avgBatch=%.1f maxBatch=%d retried=%d failed=%d]",
+                           _queue.size(), _maxQueueDepth.get(), _requests.get(), _batches.get(),
+                           getAverageBatchSize(), _maxBatchSize.get(), _retried.get(), _failed.get());
+   }//end stats
+
+   private CompletableFuture<Integer> submit (Request r) throws SQLException {
+      if (_closed)
+         throw new SQLException("Order intake is closed");
+      try {
+         _queue.put(r);
+      }catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw new SQLException("Interrupted while queueing an order write");
+      }
+      // close() may have drained the queue before the put; whoever removes
+      // the request completes it, so take it back unless the writer has it
+      if (_closed && _queue.remove(r))
+         throw new SQLException("Order intake is closed");
+      _requests.incrementAndGet();
+      _maxQueueDepth.accumulateAndGet(_queue.size(), Math::max);
+      return r.result;
+   }//end submit
+
+   // the time of an order the active orders know, so its update is pruned to one partition
+   private LocalDateTime received (int orderid) {
+      return _active != null ? _active.received(orderid) : null;
+   }//end received
+
+   // waits for a request submitted at start, unwrapping the SQLException it failed with
+   private static int await (LatencyHistogram histogram, long start, CompletableFuture<Integer> result) throws SQLException {
+      boolean ok = false;
+      try {
+         int value = result.get();
+         ok = true;
+         return value;
+      }catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw new SQLException("Interrupted while waiting for an order write");
+      }catch (ExecutionException e) {
+         if (e.getCause() instanceof SQLException)
+            throw (SQLException) e.getCause();
+         throw new SQLException(e.getCause());
+      }finally {
+         Cafe.recordStatement(histogram, start, ok);
+      }
+   }//end await
+
+   private void run () {
+      List<Request> batch = new ArrayList<Request>(_maxBatch);
+      while (!_closed || !_queue.isEmpty()) {
+         try {
+            Request first = _queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+            if (first == null)
+               continue;
+            batch.add(first);
+            _queue.drainTo(batch, _maxBatch - batch.size());
+            // give the other sessions a moment to join the batch
+            long deadline = System.nanoTime() + _lingerNanos;
+            while (batch.size() < _maxBatch) {
+               Request next = _queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+               if (next == null)
+                  break;
+               batch.add(next);
+               _queue.drainTo(batch, _maxBatch - batch.size());
+            }//end while
+         }catch (InterruptedException e) {
+            // close() does not interrupt; write what was taken and go on
+         }
+         if (!batch.isEmpty()) {
+            try {
+               write(batch);
+            }catch (RuntimeException e) {
+               // the writer goes on, and no caller is left waiting
+               for (Request r : batch)
+                  if (!r.result.isDone())
+                     fail(r, e);
+            }
+            batch.clear();
+         }
+      }//end while
+   }//end run
+
+   // commits a batch, one transaction per synchronous_commit setting
+   private void write (List<Request> batch) {
+      Map<String, List<Request>> groups = new LinkedHashMap<String, List<Request>>();
+      for (Request r : batch)
+         groups.computeIfAbsent(r.policy.getSynchronousCommit(), k -> new ArrayList<Request>()).add(r);
+      List<Request> committed = new ArrayList<Request>(batch.size());
+      Connection conn = null;
+      try {
+         conn = _pool.borrow();
+         conn.setAutoCommit(false);
+         for (List<Request> group : groups.values())
+            commit(conn, group, committed);
+         conn.setAutoCommit(true);
+      }catch (SQLException | RuntimeException e) {
+         for (Request r : batch)
+            if (!committed.contains(r) && !r.result.isDone())
+               fail(r, e);
+      }finally {
+         _pool.release(conn);
+      }
+      if (committed.isEmpty())
+         return;
+      _batches.incrementAndGet();
+      _batchedRequests.addAndGet(committed.size());
+      _maxBatchSize.accumulateAndGet(committed.size(), Math::max);
+      for (Request r : committed) {
+         try {
+            writeThrough(r);
+         }catch (RuntimeException e) {
+            // the write is committed; the feed or the next reload brings it
+         }finally {
+            r.result.complete(r.value);
+         }
+      }
+   }//end write
+
+   // commits requests of one setting together, or each alone when that fails
+   private void commit (Connection conn, List<Request> group, List<Request> committed) throws SQLException {
+      try {
+         apply(conn, group);
+         conn.commit();
+         committed.addAll(group);
+         return;
+      }catch (SQLException | RuntimeException e) {
+         conn.rollback();
+         if (group.size() == 1) {
+            fail(group.get(0), e);
+            return;
+         }
+      }
+      _retried.addAndGet(group.size());
+      for (Request r : group) {
+         try {
+            apply(conn, Collections.singletonList(r));
+            conn.commit();
+            committed.add(r);
+         }catch (SQLException | RuntimeException one) {
+            conn.rollback();
+            fail(r, one);
+         }
+      }//end for
+   }//end commit
+
+   // writes requests of one setting on conn, in the open transaction
+   private void apply (Connection conn, List<Request> batch) throws SQLException {
+      batch.get(0).policy.apply(conn);
+      StatementCache statements = _pool.statements(conn);
+      List<NewOrder> orders = new ArrayList<NewOrder>();
+      List<StatusChange> changes = new ArrayList<StatusChange>();
+      List<PaidChange> payments = new ArrayList<PaidChange>();
+      for (Request r : batch) {
+         if (r instanceof NewOrder)
+            orders.add((NewOrder) r);
+         else if (r instanceof StatusChange)
+            changes.add((StatusChange) r);
+         else
+            payments.add((PaidChange) r);
+      }//end for
+
+      if (!orders.isEmpty()) {
+         PreparedStatement stmt = statements.prepare(RESERVE_ORDERS);
+         stmt.setInt(1, orders.size());
+         ResultSet rs = stmt.executeQuery();
+         for (NewOrder order : orders) {
+            rs.next();
+            order.value = rs.getInt(1);
+            order.received = rs.getObject(2, LocalDateTime.class);
+         }
+         rs.close();
+         // both batches are rewritten into multi-row inserts by the driver
+         stmt = statements.prepare(INSERT_ORDER);
+         for (NewOrder order : orders) {
+            stmt.setInt(1, order.value);
+            stmt.setString(2, order.login);
+            stmt.setObject(3, order.received);
+            stmt.addBatch();
+         }
+         stmt.executeBatch();
+         stmt = statements.prepare(INSERT_ITEM);
+         for (NewOrder order : orders)
+            for (String item : order.items) {
+               stmt.setInt(1, order.value);
+               stmt.setString(2, item);
+               stmt.setObject(3, order.received);
+               stmt.addBatch();
+            }
+         stmt.executeBatch();
+      }//end if
+
+      // changes to orders of known time first, then the rest
+      for (boolean keyed : new boolean[] { true, false }) {
+         List<StatusChange> some = new ArrayList<StatusChange>();
+         for (StatusChange change : changes)
+            if ((change.received != null) == keyed)
+               some.add(change);
+         if (some.isEmpty())
+            continue;
+         PreparedStatement stmt = statements.prepare(keyed ? UPDATE_STATUS_RECEIVED : UPDATE_STATUS_LOOKUP);
+         for (StatusChange change : some) {
+            stmt.setString(1, change.status);
+            stmt.setInt(2, change.orderid);
+            stmt.setString(3, change.itemName);
+            if (keyed)
+               stmt.setObject(4, change.received);
+            else
+               stmt.setInt(4, change.orderid);
+            stmt.addBatch();
+         }
+         int[] counts = stmt.executeBatch();
+         for (int i = 0; i < counts.length; ++i)
+            some.get(i).value = counts[i];
+      }//end for
+
+      for (boolean keyed : new boolean[] { true, false }) {
+         List<PaidChange> some = new ArrayList<PaidChange>();
+         for (PaidChange payment : payments)
+            if ((payment.received != null) == keyed)
+               some.add(payment);
+         if (some.isEmpty())
+            continue;
+         PreparedStatement stmt = statements.prepare(keyed ? UPDATE_PAID_RECEIVED : UPDATE_PAID_LOOKUP);
+         for (PaidChange payment : some) {
+            stmt.setBoolean(1, payment.paid);
+            stmt.setInt(2, payment.orderid);
+            if (keyed)
+               stmt.setObject(3, payment.received);
+            else
+               stmt.setInt(3, payment.orderid);
+            stmt.addBatch();
+         }
+         int[] counts = stmt.executeBatch();
+         for (int i = 0; i < counts.length; ++i)
+            some.get(i).value = counts[i];
+      }//end for
+   }//end apply
+
+   // employee views see a committed change at once, without waiting for the feed
+   private void writeThrough (Request r) {
+      if (_active == null)
+         return;
+      if (r instanceof NewOrder) {
+         NewOrder order = (NewOrder) r;
+         Map<String, String> items = new LinkedHashMap<String, String>();
+         for (String item : order.items)
+            items.put(item, "Hasn't Started");
+         _active.placed(new ActiveOrder(order.value, order.received, items));
+      }
+      else if (r instanceof StatusChange) {
+         StatusChange change = (StatusChange) r;
+         if (change.value > 0)
+            _active.itemStatus(change.orderid, change.itemName, change.status);
+      }
+      else {
+         PaidChange payment = (PaidChange) r;
+         if (payment.paid) {
+            _active.remove(payment.orderid);
+         }
+         else {
+            try {
+               _active.refresh(_esql, payment.orderid);
+            }catch (SQLException e) {
+               // the feed or the next reload brings the order back
+            }
+         }
+      }
+   }//end writeThrough
+
+   private void fail (Request r, Exception e) {
+      _failed.incrementAndGet();
+      r.result.completeExceptionally(e);
+   }//end fail
+
+}//end OrderIntake
@@ -0,0 +1,112 @@
+/*
+ * Template JAVA User Interface
+ * =============================
+ *
+ * Database Management Systems
+ * Department of Computer Science &amp; Engineering
+ * University of California - Riverside
+ *
+ * Target DBMS: 'Postgres'
+ *
+ */
+
+package cafe;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Calls maintain_partitions() (create_partitions.sql) at start-up and then
+ * periodically, so the weekly Orders and ItemStatus partitions exist before
+ * they are needed. Old weeks are kept unless cafe.partitions.retainWeeks
+ * is set, in which case older weeks are dropped. Several clients may run
+ * one each; the function lets only one of them work at a time.
+ *
+ */
+public final class PartitionMaintainer implements AutoCloseable {
+
+   // SQLSTATE undefined_function: the database has no partition functions
+   private static final String UNDEFINED_FUNCTION = "42883";
+
+   private final ConnectionPool _pool;
+   private final int _retainWeeks;
+   private final int _aheadWeeks;
+   private final ScheduledExecutorService _timer;
+
+   /**
+    * @param pool connections to run the maintenance on
+    * @param retainWeeks weeks of orders kept, 0 to keep all
+    * @param aheadWeeks weeks of partitions created in advance
+    * @param periodMinutes time between runs
+    */
+   public PartitionMaintainer (ConnectionPool pool, int retainWeeks, int aheadWeeks, long periodMinutes) {
+      this._pool = pool;
+      this._retainWeeks = retainWeeks;
+      this._aheadWeeks = aheadWeeks;
+      this._timer = Executors.newSingleThreadScheduledExecutor(r -> {
+         Thread t = new Thread(r, "cafe-partitions");
+         t.setDaemon(true);
+         return t;
+      });
+      this._timer.scheduleWithFixedDelay(this::run, 0, periodMinutes, TimeUnit.MINUTES);
+   }//end PartitionMaintainer
+
+   /**
+    * Starts maintenance configured by the cafe.partitions.* system properties.
+    *
+    * @param pool connections to run the maintenance on
+    * @return the running maintainer
+    */
+   public static PartitionMaintainer fromSystemProperties (ConnectionPool pool) {
+      return new PartitionMaintainer(pool,
+                                     Integer.getInteger("cafe.partitions.retainWeeks", 0),
+                                     Integer.getInteger("cafe.partitions.aheadWeeks", 4),
+                                     Long.getLong("cafe.partitions.periodMinutes", 60L));
+   }//end fromSystemProperties
+
+   /**
+    * Runs maintain_partitions() once.
+    *
+    * @return the number of partitions created or dropped
+    * @throws java.sql.SQLException when the maintenance fails
+    */
+   public int runOnce () throws SQLException {
+      Connection conn = _pool.borrow();
+      try (PreparedStatement ps = conn.prepareStatement("SELECT maintain_partitions(?, ?)")) {
+         ps.setInt(1, _retainWeeks);
+         ps.setInt(2, _aheadWeeks);
+         try (ResultSet rs = ps.executeQuery()) {
+            rs.next();
+            return rs.getInt(1);
+         }
+      }finally {
+         _pool.release(conn);
+      }
+   }//end runOnce
+
+   private void run () {
+      try {
+         runOnce();
+      }catch (SQLException e) {
+         if (UNDEFINED_FUNCTION.equals(e.getSQLState())) {
+            // schema without partitions; nothing to maintain
+            _timer.shutdown();
+            return;
+         }
+         System.err.println("Partition maintenance failed: " + e.getMessage());
+      }
+   }//end run
+
+   /**
+    * Stops the periodic runs.
+    */
+   public void close () {
+      _timer.shutdownNow();
+   }//end close
+
+}//end PartitionMaintainer
@@ -0,0 +1,248 @@
+/*
+ * Template JAVA User Interface
+ * =============================
+ *
+ * Database Management Systems
+ * Department of Computer Science &amp; Engineering
+ * University of California - Riverside
+ *
+ * Target DBMS: 'Postgres'
+ *
+ */
+
+package cafe;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams a ResultSet to a Writer as tab-separated lines, an aligned table,
+ * CSV or JSON lines. The tab layout is the one the menus have always
+ * printed, and the default.
+ * Rows are written as they are fetched, so memory stays constant however
+ * many rows the query returns. The table layout sizes its columns from the
+ * first batch of rows only; later, wider values simply push the row out.
+ *
+ */
+public class ResultPrinter {
+
+   public enum Format { TAB, TABLE, CSV, JSONL }
+
+   // rows buffered to size the table columns
+   private static final int TABLE_SAMPLE_ROWS = 100;
+
+   private final Format _format;
+
+   public ResultPrinter (Format format) {
+      this._format = format;
+   }//end ResultPrinter
+
+   /**
+    * Reads the output format from the cafe.output system property
+    * (tab, table, csv or jsonl; tab by default).
+    *
+    * @return the configured printer
+    */
+   public static ResultPrinter fromSystemProperties () {
+      String format = System.getProperty("cafe.output", "tab");
+      return new ResultPrinter(Format.valueOf(format.trim().toUpperCase()));
+   }//end fromSystemProperties
+
+   /**
+    * Writes every remaining row of rs to out. The writer is not flushed.
+    *
+    * @param rs the result set, positioned before the first row
+    * @param out where the rows are written
+    * @return the number of rows written
+    * @throws java.sql.SQLException when reading the result failed
+    * @throws java.io.IOException when writing failed
+    */
+   public int print (ResultSet rs, Writer out) throws SQLException, IOException {
+      ResultSetMetaData rsmd = rs.getMetaData ();
+      int numCol = rsmd.getColumnCount ();
+      String[] names = new String[numCol];
+      for (int i = 0; i < numCol; ++i)
+         names[i] = rsmd.getColumnLabel(i + 1);
+
+      switch (_format) {
+         case CSV: return printCsv(rs, out, names);
+         case JSONL: return printJsonLines(rs, out, names);
+         case TABLE: return printTable(rs, out, names);
+         default: return printTab(rs, out, names);
+      }
+   }//end print
+
+   // every value followed by a tab, the header only when there are rows
+   private int printTab (ResultSet rs, Writer out, String[] names) throws SQLException, IOException {
+      int numCol = names.length;
+      int rowCount = 0;
+      while (rs.next()) {
+         if (rowCount == 0) {
+            for (String name : names) {
+               out.write(name);
+               out.write('\t');
+            }
+            out.write('\n');
+         }
+         for (int i = 1; i <= numCol; ++i) {
+            out.write(String.valueOf(rs.getString(i)));
+            out.write('\t');
+         }
+         out.write('\n');
+         ++rowCount;
+      }//end while
+      return rowCount;
+   }//end printTab
+
+   private int printTable (ResultSet rs, Writer out, String[] names) throws SQLException, IOException {
+      int numCol = names.length;
+      int[] widths = new int[numCol];
+      for (int i = 0; i < numCol; ++i)
+         widths[i] = names[i].length();
+
+      // size the columns from a first sample of rows
+      List<String[]> sample = new ArrayList<String[]>();
+      boolean more = true;
+      while (sample.size() < TABLE_SAMPLE_ROWS && (more = rs.next())) {
+         String[] row = readRow(rs, numCol);
+         for (int i = 0; i < numCol; ++i)
+            widths[i] = Math.max(widths[i], row[i].length());
+         sample.add(row);
+      }//end while
+      if (sample.isEmpty())
+         return 0;
+
+      writeTableRow(out, names, widths);
+      for (int i = 0; i < numCol; ++i) {
+         out.write(i == 0 ? "" : "-+-");
+         repeat(out, '-', widths[i]);
+      }
+      out.write('\n');
+
+      int rowCount = 0;
+      for (String[] row : sample) {
+         writeTableRow(out, row, widths);
+         ++rowCount;
+      }
+      while (more && rs.next()) {
+         writeTableRow(out, readRow(rs, numCol), widths);
+         ++rowCount;
+      }//end while
+      return rowCount;
+   }//end printTable
+
+   private int printCsv (ResultSet rs, Writer out, String[] names) throws SQLException, IOException {
+      int numCol = names.length;
+      for (int i = 0; i < numCol; ++i) {
+         if (i > 0)
+            out.write(',');
+         writeCsvField(out, names[i]);
+      }
+      out.write('\n');
+
+      int rowCount = 0;
+      while (rs.next()) {
+         for (int i = 1; i <= numCol; ++i) {
+            if (i > 1)
+               out.write(',');
+            String value = rs.getString(i);
+            if (value != null)
+               writeCsvField(out, value.stripTrailing());
+         }
+         out.write('\n');
+         ++rowCount;
+      }//end while
+      return rowCount;
+   }//end printCsv
+
+   private int printJsonLines (ResultSet rs, Writer out, String[] names) throws SQLException, IOException {
+      int numCol = names.length;
+      int rowCount = 0;
+      while (rs.next()) {
+         out.write('{');
+         for (int i = 1; i <= numCol; ++i) {
+            if (i > 1)
+               out.write(',');
+            writeJsonString(out, names[i - 1]);
+            out.write(':');
+            String value = rs.getString(i);
+            if (value == null)
+               out.write("null");
+            else
+               writeJsonString(out, value.stripTrailing());
+         }
+         out.write("}\n");
+         ++rowCount;
+      }//end while
+      return rowCount;
+   }//end printJsonLines
+
+   // one row as text, nulls as empty cells
+   private static String[] readRow (ResultSet rs, int numCol) throws SQLException {
+      String[] row = new String[numCol];
+      for (int i = 0; i < numCol; ++i) {
+         String value = rs.getString(i + 1);
+         row[i] = value == null ? "" : value;
+      }
+      return row;
+   }//end readRow
+
+   private static void writeTableRow (Writer out, String[] row, int[] widths) throws IOException {
+      for (int i = 0; i < row.length; ++i) {
+         if (i > 0)
+            out.write(" | ");
+         out.write(row[i]);
+         if (i < row.length - 1)
+            repeat(out, ' ', widths[i] - row[i].length());
+      }
+      out.write('\n');
+   }//end writeTableRow
+
+   private static void repeat (Writer out, char c, int n) throws IOException {
+      for (int i = 0; i < n; ++i)
+         out.write(c);
+   }//end repeat
+
+   private static void writeCsvField (Writer out, String value) throws IOException {
+      boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                      || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+      if (!quote) {
+         out.write(value);
+         return;
+      }
+      out.write('"');
+      for (int i = 0; i < value.length(); ++i) {
+         char c = value.charAt(i);
+         if (c == '"')
+            out.write('"');
+         out.write(c);
+      }
+      out.write('"');
+   }//end writeCsvField
+
+   private static void writeJsonString (Writer out, String value) throws IOException {
+      out.write('"');
+      for (int i = 0; i < value.length(); ++i) {
+         char c = value.charAt(i);
+         switch (c) {
+            case '"': out.write("\\\""); break;
+            case '\\': out.write("\\\\"); break;
+            case '\n': out.write("\\n"); break;
+            case '\r': out.write("\\r"); break;
+            case '\t': out.write("\\t"); break;
+            default:
+               if (c < 0x20)
+                  out.write(String.format("\\u%04x", (int) c));
+               else
+                  out.write(c);
+         }
+      }
+      out.write('"');
+   }//end writeJsonString
+
+}//end ResultPrinter
@@ -0,0 +1,33 @@
+/*
+ * Template JAVA User Interface
+ * =============================
+ *
+ * Database Management Systems
+ * Department of Computer Science &amp; Engineering
+ * University of California - Riverside
+ *
+ * Target DBMS: 'Postgres'
+ *
+ */
+
+package cafe;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Maps the current row of a ResultSet to an object, reading each column
+ * with its typed getter (getInt, getFloat, getTimestamp, ...) instead of
+ * going through a String.
+ *
+ */
+public interface RowMapper<T> {
+
+   /**
+    * @param rs the result set, positioned on the row to map
+    * @return the mapped row
+    * @throws java.sql.SQLException when a column cannot be read
+    */
+   T map (ResultSet rs) throws SQLException;
+
+}//end RowMapper
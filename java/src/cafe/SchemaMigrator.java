@@ -0,0 +1,477 @@
+/*
+ * Template JAVA User Interface
+ * =============================
+ *
+ * Database Management Systems
+ * Department of Computer Science &amp; Engineering
+ * University of California - Riverside
+ *
+ * Target DBMS: 'Postgres'
+ *
+ */
+
+package cafe;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Moves a database created with the char(n) schema to the schema of
+ * create_tables.sql (varchar columns, enum roles and statuses, Orders and
+ * ItemStatus partitioned by week) while the Cafe keeps running against it.
+ *
+ * Every table gets a converted copy, kept in step with the original by a
+ * row trigger while existing rows are copied over in small keyset batches.
+ * The copies of Orders and ItemStatus are partitioned, their weeks created
+ * by ensure_partitions() of create_partitions.sql, which has to be run
+ * first; ItemStatus rows take the time of their order as orderReceived.
+ * The secondary indexes are then rebuilt concurrently on the copies, one
+ * partition at a time, and one short transaction swaps the copies in under
+ * the original names. The foreign keys are validated after the swap, without
+ * blocking writers. The originals stay as *_old tables unless --drop-old is
+ * given. Item prices are taken from the current menu; run create_triggers.sql
+ * and create_notify.sql after the migration so that new items keep
+ * Orders.total up to date and the order feed is published again.
+ *
+ * Usage: java cafe.SchemaMigrator <dbname> <port> [--batch N] [--drop-old]
+ */
+public class SchemaMigrator {
+
+   // one table of the schema: new column definitions, partitioning, and how
+   // to convert an old row; keyNames is the old table's key, newKey the copy's
+   private static final class Table {
+      final String name;
+      final String columns;
+      final String partitionBy;
+      final String[] columnNames;
+      final String[] keyNames;
+      final String newKey;
+      final String convert;
+      final String convertKey;
+
+      Table(String name, String columns, String partitionBy, String[] columnNames, String[] keyNames,
+            String newKey, String convert, String convertKey) {
+         this.name = name;
+         this.columns = columns;
+         this.partitionBy = partitionBy;
+         this.columnNames = columnNames;
+         this.keyNames = keyNames;
+         this.newKey = newKey;
+         this.convert = convert;
+         this.convertKey = convertKey;
+      }
+
+      String copy() { return name + "_new"; }
+      String old() { return name + "_old"; }
+      String key() { return String.join(", ", keyNames); }
+      boolean partitioned() { return partitionBy != null; }
+
+      // conversion of the row named by alias, e.g. NEW or o
+      String convert(String alias) { return convert.replace("$", alias); }
+      String convertKey(String alias) { return convertKey.replace("$", alias); }
+   }//end Table
+
+   // in swap order; foreign keys are added after all four are in place
+   private static final Table[] TABLES = {
+      new Table("users",
+         "login varchar(50) NOT NULL, phoneNum varchar(16) UNIQUE, password varchar(50) NOT NULL, "
+       + "favItems varchar(400), type user_type NOT NULL, PRIMARY KEY(login)",
+         null,
+         new String[] { "login", "phoneNum", "password", "favItems", "type" },
+         new String[] { "login" },
+         "login",
+         "rtrim($.login), rtrim($.phoneNum), rtrim($.password), rtrim($.favItems), rtrim($.type::text)::user_type",
+         "rtrim($.login)"),
+      new Table("menu",
+         "itemName varchar(50) NOT NULL, type varchar(20) NOT NULL, price real NOT NULL, "
+       + "description varchar(400), imageURL varchar(256), PRIMARY KEY(itemName)",
+         null,
+         new String[] { "itemName", "type", "price", "description", "imageURL" },
+         new String[] { "itemName" },
+         "itemName",
+         "rtrim($.itemName), rtrim($.type), $.price, rtrim($.description), rtrim($.imageURL)",
+         "rtrim($.itemName)"),
+      new Table("orders",
+         "orderid integer NOT NULL DEFAULT nextval('orders_orderid_seq'), login varchar(50), paid boolean, "
+       + "timeStampRecieved timestamp NOT NULL DEFAULT statement_timestamp(), total real NOT NULL, "
+       + "PRIMARY KEY(orderid, timeStampRecieved)",
+         "timeStampRecieved",
+         new String[] { "orderid", "login", "paid", "timeStampRecieved", "total" },
+         new String[] { "orderid" },
+         "orderid, timeStampRecieved",
+         "$.orderid, rtrim($.login), $.paid, $.timeStampRecieved, $.total",
+         "$.orderid"),
+      new Table("itemstatus",
+         "orderid integer, itemName varchar(50), lastUpdated timestamp NOT NULL DEFAULT statement_timestamp(), "
+       + "status item_status, comments varchar(130), price real NOT NULL, orderReceived timestamp NOT NULL, "
+       + "PRIMARY KEY(orderid, itemName, orderReceived)",
+         "orderReceived",
+         new String[] { "orderid", "itemName", "lastUpdated", "status", "comments", "price", "orderReceived" },
+         new String[] { "orderid", "itemName" },
+         "orderid, itemName, orderReceived",
+         "$.orderid, rtrim($.itemName), $.lastUpdated, rtrim($.status::text)::item_status, rtrim($.comments), "
+       + "(SELECT m.price FROM menu m WHERE m.itemName = $.itemName), "
+       + "(SELECT r.timeStampRecieved FROM orders r WHERE r.orderid = $.orderid)",
+         "$.orderid, rtrim($.itemName)")
+   };
+
+   // name and definition of the foreign keys of ItemStatus
+   private static final String[][] FOREIGN_KEYS = {
+      { "itemstatus_orderid_orderreceived_fkey",
+        "FOREIGN KEY (orderid, orderReceived) REFERENCES orders(orderid, timeStampRecieved) ON DELETE CASCADE" },
+      { "itemstatus_itemname_fkey", "FOREIGN KEY (itemName) REFERENCES menu(itemName)" }
+   };
+
+   // weeks of partitions made ahead of the newest order, as the client keeps
+   private static final String AHEAD = "interval '4 weeks'";
+
+   private static final int SWAP_ATTEMPTS = 10;
+
+   private final Connection _conn;
+   private final int _batchSize;
+
+   /**
+    * @param conn a dedicated connection in autocommit mode
+    * @param batchSize rows copied per backfill transaction
+    */
+   public SchemaMigrator (Connection conn, int batchSize) {
+      this._conn = conn;
+      this._batchSize = batchSize;
+   }//end SchemaMigrator
+
+   public static void main (String[] args) throws Exception {
+      if (args.length < 2) {
+         System.err.println("Usage: java cafe.SchemaMigrator <dbname> <port> [--batch N] [--drop-old]");
+         return;
+      }
+      int batch = 10000;
+      boolean dropOld = false;
+      for (int i = 2; i < args.length; ++i) {
+         if (args[i].equals("--batch"))
+            batch = Integer.parseInt(args[++i]);
+         else if (args[i].equals("--drop-old"))
+            dropOld = true;
+      }
+
+      Class.forName("org.postgresql.Driver");
+      String url = "jdbc:postgresql://127.0.0.1:" + args[1] + "/" + args[0];
+      ConnectionPool pool = new ConnectionPool(url, 1, 1, 60000L, 30000L);
+      Connection conn = pool.borrow();
+      try {
+         new SchemaMigrator(conn, batch).migrate(dropOld);
+      }finally {
+         pool.release(conn);
+         pool.close();
+      }
+   }//end main
+
+   /**
+    * Runs the migration; does nothing when the schema is already compact
+    * and partitioned.
+    *
+    * @param dropOld drop the original tables once the copies are in use
+    * @throws java.sql.SQLException when a step fails, or create_partitions.sql
+    *         has not been run; until the swap, a rerun starts again with
+    *         fresh copies
+    */
+   public void migrate (boolean dropOld) throws SQLException {
+      if (isPartitioned()) {
+         System.out.println("Schema already uses the compact column types and weekly partitions");
+         return;
+      }
+      if (!hasEnsurePartitions())
+         throw new SQLException("Run create_partitions.sql first, the partitions of the copies are made by ensure_partitions()");
+      long start = System.nanoTime();
+      createTypes();
+      for (Table t : TABLES)
+         createCopy(t);
+      createPartitions();
+      for (Table t : TABLES)
+         backfill(t);
+      for (Table t : TABLES)
+         copyIndexes(t);
+      for (Table t : TABLES)
+         execute("ANALYZE " + t.copy());
+      swap();
+      validateForeignKeys();
+      if (dropOld)
+         for (int i = TABLES.length - 1; i >= 0; --i)
+            execute("DROP TABLE " + TABLES[i].old());
+      System.out.printf("Migrated in %.1fs%n", (System.nanoTime() - start) / 1e9);
+      report();
+   }//end migrate
+
+   private boolean isMigrated () throws SQLException {
+      try (Statement stmt = _conn.createStatement();
+           ResultSet rs = stmt.executeQuery(
+              "SELECT data_type FROM information_schema.columns "
+            + "WHERE table_schema = current_schema() AND table_name = 'itemstatus' AND column_name = 'status'")) {
+         return rs.next() && rs.getString(1).equals("USER-DEFINED");
+      }
+   }//end isMigrated
+
+   // the schema of create_tables.sql: Orders partitioned, ItemStatus with orderReceived
+   private boolean isPartitioned () throws SQLException {
+      try (Statement stmt = _conn.createStatement();
+           ResultSet rs = stmt.executeQuery(
+              "SELECT (SELECT relkind FROM pg_class WHERE oid = to_regclass('orders')) = 'p' "
+            + "AND EXISTS (SELECT 1 FROM information_schema.columns WHERE table_schema = current_schema() "
+            + "AND table_name = 'itemstatus' AND column_name = 'orderreceived')")) {
+         return rs.next() && rs.getBoolean(1) && isMigrated();
+      }
+   }//end isPartitioned
+
+   // ensure_partitions() of create_partitions.sql, which takes the parent tables
+   private boolean hasEnsurePartitions () throws SQLException {
+      try (Statement stmt = _conn.createStatement();
+           ResultSet rs = stmt.executeQuery("SELECT 1 FROM pg_proc WHERE proname = 'ensure_partitions' AND pronargs = 4")) {
+         return rs.next();
+      }
+   }//end hasEnsurePartitions
+
+   private void createTypes () throws SQLException {
+      execute("DO $$ BEGIN CREATE TYPE user_type AS ENUM ('Customer', 'Employee', 'Manager'); "
+            + "EXCEPTION WHEN duplicate_object THEN NULL; END $$");
+      execute("DO $$ BEGIN CREATE TYPE item_status AS ENUM ('Hasn''t Started', 'Started', 'Finished'); "
+            + "EXCEPTION WHEN duplicate_object THEN NULL; END $$");
+   }//end createTypes
+
+   // creates the converted copy and the trigger that keeps it in step
+   private void createCopy (Table t) throws SQLException {
+      System.out.println("Creating " + t.copy());
+      execute("DROP TRIGGER IF EXISTS " + t.copy() + "_mirror ON " + t.name);
+      execute("DROP TABLE IF EXISTS " + t.copy());
+      execute("CREATE TABLE " + t.copy() + " (" + t.columns + ")"
+            + (t.partitioned() ? " PARTITION BY RANGE (" + t.partitionBy + ")" : ""));
+
+      List<String> excluded = new ArrayList<String>();
+      for (String c : t.columnNames)
+         excluded.add("EXCLUDED." + c);
+      execute("CREATE OR REPLACE FUNCTION " + t.copy() + "_mirror() RETURNS trigger AS $$\n"
+            + "BEGIN\n"
+            + "   IF TG_OP <> 'INSERT' THEN\n"
+            + "      DELETE FROM " + t.copy() + " WHERE (" + t.key() + ") = (" + t.convertKey("OLD") + ");\n"
+            + "   END IF;\n"
+            + "   IF TG_OP <> 'DELETE' THEN\n"
+            + "      INSERT INTO " + t.copy() + " VALUES (" + t.convert("NEW") + ")\n"
+            + "      ON CONFLICT (" + t.newKey + ") DO UPDATE SET (" + String.join(", ", t.columnNames)
+            + ") = (" + String.join(", ", excluded) + ");\n"
+            + "   END IF;\n"
+            + "   RETURN NULL;\n"
+            + "END $$ LANGUAGE plpgsql");
+      execute("CREATE TRIGGER " + t.copy() + "_mirror AFTER INSERT OR UPDATE OR DELETE ON " + t.name
+            + " FOR EACH ROW EXECUTE FUNCTION " + t.copy() + "_mirror()");
+   }//end createCopy
+
+   // weeks for every order so far and the ones the client makes ahead, named
+   // as create_partitions.sql names them, so the swap needs no renames
+   private void createPartitions () throws SQLException {
+      execute("SELECT ensure_partitions(COALESCE(min(timeStampRecieved), LOCALTIMESTAMP), "
+            + "GREATEST(max(timeStampRecieved), LOCALTIMESTAMP + " + AHEAD + "), "
+            + "'orders_new', 'itemstatus_new') FROM orders");
+   }//end createPartitions
+
+   // copies the existing rows in key order; FOR SHARE makes concurrent
+   // changes to a batch wait until it has been copied
+   private void backfill (Table t) throws SQLException {
+      String first = "SELECT * FROM " + t.name + " ORDER BY " + t.key() + " LIMIT ? FOR SHARE";
+      String next = "SELECT * FROM " + t.name + " WHERE (" + t.key() + ") > (" + placeholders(t.keyNames.length)
+                  + ") ORDER BY " + t.key() + " LIMIT ? FOR SHARE";
+      String template = "WITH batch AS (%s), "
+                      + "copied AS (INSERT INTO " + t.copy() + " SELECT " + t.convert("o") + " FROM batch o ON CONFLICT DO NOTHING) "
+                      + "SELECT count(*) OVER (), " + t.key() + " FROM batch ORDER BY " + keyDescending(t) + " LIMIT 1";
+
+      long rows = 0;
+      long start = System.nanoTime();
+      Object[] last = null;
+      while (true) {
+         try (PreparedStatement ps = _conn.prepareStatement(String.format(template, last == null ? first : next))) {
+            int p = 1;
+            if (last != null)
+               for (Object k : last)
+                  ps.setObject(p++, k);
+            ps.setInt(p, _batchSize);
+            try (ResultSet rs = ps.executeQuery()) {
+               if (!rs.next())
+                  break;
+               rows += rs.getLong(1);
+               last = new Object[t.keyNames.length];
+               for (int i = 0; i < last.length; ++i)
+                  last[i] = rs.getObject(i + 2);
+            }
+         }
+      }//end while
+      System.out.printf("Copied %d %s rows in %.1fs%n", rows, t.name, (System.nanoTime() - start) / 1e9);
+   }//end backfill
+
+   // rebuilds the old table's secondary indexes on the copy without blocking writes
+   private void copyIndexes (Table t) throws SQLException {
+      List<String[]> indexes = new ArrayList<String[]>();
+      try (PreparedStatement ps = _conn.prepareStatement(
+              "SELECT i.indexname, i.indexdef FROM pg_indexes i "
+            + "WHERE i.schemaname = current_schema() AND i.tablename = ? "
+            + "AND NOT EXISTS (SELECT 1 FROM pg_constraint c WHERE c.conname = i.indexname)")) {
+         ps.setString(1, t.name);
+         try (ResultSet rs = ps.executeQuery()) {
+            while (rs.next())
+               indexes.add(new String[] { rs.getString(1), rs.getString(2) });
+         }
+      }
+      // a partitioned index cannot be built concurrently: it is created on the
+      // parent alone, built on each partition, and the partitions attached
+      List<String> partitions = t.partitioned() ? partitions(t.copy()) : List.of();
+      for (String[] index : indexes) {
+         String name = copyName(t, index[0]);
+         System.out.println("Building " + name);
+         execute("DROP INDEX IF EXISTS " + name);
+         String on = "INDEX \\S+ ON (\\S+\\.)?" + t.name + " ";
+         if (!t.partitioned()) {
+            execute(index[1].replaceFirst(on, "INDEX CONCURRENTLY " + name + " ON $1" + t.copy() + " "));
+            continue;
+         }
+         execute(index[1].replaceFirst(on, "INDEX " + name + " ON ONLY $1" + t.copy() + " "));
+         for (String part : partitions) {
+            String partIndex = renamed(index[0], t.name, part);
+            execute(index[1].replaceFirst(on, "INDEX CONCURRENTLY " + partIndex + " ON $1" + part + " "));
+            execute("ALTER INDEX " + name + " ATTACH PARTITION " + partIndex);
+         }
+      }//end for
+   }//end copyIndexes
+
+   // puts the copies in place of the originals in one short transaction
+   private void swap () throws SQLException {
+      for (int attempt = 1; ; ++attempt) {
+         _conn.setAutoCommit(false);
+         try (Statement stmt = _conn.createStatement()) {
+            stmt.execute("SET LOCAL lock_timeout = '2s'");
+            for (Table t : TABLES)
+               stmt.execute("LOCK TABLE " + t.name + " IN ACCESS EXCLUSIVE MODE");
+            for (Table t : TABLES) {
+               List<String> oldIndexes = indexNames(t.name);
+               List<String> newIndexes = indexNames(t.copy());
+               stmt.execute("DROP TRIGGER " + t.copy() + "_mirror ON " + t.name);
+               stmt.execute("DROP FUNCTION " + t.copy() + "_mirror()");
+               stmt.execute("ALTER TABLE " + t.name + " RENAME TO " + t.old());
+               stmt.execute("ALTER TABLE " + t.copy() + " RENAME TO " + t.name);
+               for (String index : oldIndexes)
+                  stmt.execute("ALTER INDEX " + index + " RENAME TO " + renamed(index, t.name, t.old()));
+               for (String index : newIndexes)
+                  stmt.execute("ALTER INDEX " + index + " RENAME TO " + renamed(index, t.copy(), t.name));
+            }
+            stmt.execute("ALTER SEQUENCE orders_orderid_seq OWNED BY orders.orderid");
+            // OrderTimes, filled by the old Orders' triggers so far, follows the new one
+            stmt.execute("CREATE TRIGGER ordertimes_insert AFTER INSERT ON orders REFERENCING NEW TABLE AS added "
+                       + "FOR EACH STATEMENT EXECUTE FUNCTION ordertimes_add()");
+            stmt.execute("CREATE TRIGGER ordertimes_delete AFTER DELETE ON orders REFERENCING OLD TABLE AS removed "
+                       + "FOR EACH STATEMENT EXECUTE FUNCTION ordertimes_remove()");
+            // a partitioned table takes no NOT VALID foreign key, its partitions do
+            for (String part : partitions("itemstatus"))
+               for (String[] fk : FOREIGN_KEYS)
+                  stmt.execute("ALTER TABLE " + part + " ADD CONSTRAINT " + renamed(fk[0], "itemstatus", part)
+                             + " " + fk[1] + " NOT VALID");
+            _conn.commit();
+            System.out.println("Swapped in the compact tables");
+            return;
+         }catch (SQLException e) {
+            _conn.rollback();
+            // 55P03: lock_not_available, the application held a lock too long
+            if (!"55P03".equals(e.getSQLState()) || attempt == SWAP_ATTEMPTS)
+               throw e;
+            System.out.println("Tables busy, retrying the swap");
+         }finally {
+            _conn.setAutoCommit(true);
+         }
+      }//end for
+   }//end swap
+
+   // validates the partitions' foreign keys without blocking writers, then
+   // adds them to ItemStatus itself, which takes the validated ones over
+   // without scanning again and gives them to partitions made later
+   private void validateForeignKeys () throws SQLException {
+      for (String part : partitions("itemstatus"))
+         for (String[] fk : FOREIGN_KEYS)
+            execute("ALTER TABLE " + part + " VALIDATE CONSTRAINT " + renamed(fk[0], "itemstatus", part));
+      for (String[] fk : FOREIGN_KEYS)
+         execute("ALTER TABLE itemstatus ADD CONSTRAINT " + fk[0] + " " + fk[1]);
+   }//end validateForeignKeys
+
+   // sizes of a partitioned table are the sums over its partitions
+   private void report () throws SQLException {
+      try (Statement stmt = _conn.createStatement();
+           ResultSet rs = stmt.executeQuery(
+              "SELECT c.relname, pg_size_pretty(sum(pg_table_size(p.relid))), pg_size_pretty(sum(pg_indexes_size(p.relid))) "
+            + "FROM pg_class c, pg_partition_tree(c.oid) p "
+            + "WHERE c.relnamespace = current_schema()::regnamespace AND c.relkind IN ('r', 'p') "
+            + "AND c.relname IN ('users', 'menu', 'orders', 'itemstatus', 'users_old', 'menu_old', 'orders_old', 'itemstatus_old') "
+            + "GROUP BY c.relname ORDER BY c.relname")) {
+         System.out.printf("%-16s %12s %12s%n", "table", "heap", "indexes");
+         while (rs.next())
+            System.out.printf("%-16s %12s %12s%n", rs.getString(1), rs.getString(2), rs.getString(3));
+      }
+   }//end report
+
+   private List<String> indexNames (String table) throws SQLException {
+      List<String> names = new ArrayList<String>();
+      try (PreparedStatement ps = _conn.prepareStatement(
+              "SELECT indexname FROM pg_indexes WHERE schemaname = current_schema() AND tablename = ?")) {
+         ps.setString(1, table);
+         try (ResultSet rs = ps.executeQuery()) {
+            while (rs.next())
+               names.add(rs.getString(1));
+         }
+      }
+      return names;
+   }//end indexNames
+
+   private List<String> partitions (String table) throws SQLException {
+      List<String> names = new ArrayList<String>();
+      try (PreparedStatement ps = _conn.prepareStatement(
+              "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid "
+            + "WHERE i.inhparent = ?::regclass ORDER BY c.relname")) {
+         ps.setString(1, table);
+         try (ResultSet rs = ps.executeQuery()) {
+            while (rs.next())
+               names.add(rs.getString(1));
+         }
+      }
+      return names;
+   }//end partitions
+
+   // orders_login_orderid_idx on orders becomes orders_new_login_orderid_idx
+   private static String copyName (Table t, String index) {
+      return renamed(index, t.name, t.copy());
+   }//end copyName
+
+   // swaps the table name prefix of an index name
+   private static String renamed (String index, String from, String to) {
+      if (index.startsWith(from + "_"))
+         return to + index.substring(from.length());
+      return to + "_" + index;
+   }//end renamed
+
+   private static String keyDescending (Table t) {
+      List<String> keys = new ArrayList<String>();
+      for (String k : t.keyNames)
+         keys.add(k + " DESC");
+      return String.join(", ", keys);
+   }//end keyDescending
+
+   private static String placeholders (int n) {
+      List<String> marks = new ArrayList<String>();
+      for (int i = 0; i < n; ++i)
+         marks.add("?");
+      return String.join(", ", marks);
+   }//end placeholders
+
+   private void execute (String sql) throws SQLException {
+      try (Statement stmt = _conn.createStatement()) {
+         stmt.execute(sql);
+      }
+   }//end execute
+
+}//end SchemaMigrator
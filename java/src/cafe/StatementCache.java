@@ -0,0 +1,97 @@
+/*
+ * Template JAVA User Interface
+ * =============================
+ *
+ * Database Management Systems
+ * Department of Computer Science &amp; Engineering
+ * University of California - Riverside
+ *
+ * Target DBMS: 'Postgres'
+ *
+ */
+
+package cafe;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A least-recently-used cache of PreparedStatements for one physical
+ * connection, keyed by SQL text. Since every Cafe query uses ? placeholders
+ * the key is the query shape, not the values. A connection is only ever
+ * used by one thread at a time, so the cache is not synchronized.
+ *
+ */
+public class StatementCache {
+
+   private final Connection _conn;
+   private final LinkedHashMap<String, PreparedStatement> _statements;
+   private long _hits = 0;
+   private long _misses = 0;
+
+   /**
+    * Creates an empty cache for a connection.
+    *
+    * @param conn the connection the statements are prepared on
+    * @param capacity maximum number of statements kept open
+    */
+   public StatementCache (Connection conn, final int capacity) {
+      this._conn = conn;
+      // access-ordered map, evicting (and closing) the least recently used statement
+      this._statements = new LinkedHashMap<String, PreparedStatement>(capacity * 2, 0.75f, true) {
+         @Override
+         protected boolean removeEldestEntry (Map.Entry<String, PreparedStatement> eldest) {
+            if (size() <= capacity)
+               return false;
+            closeQuietly(eldest.getValue());
+            return true;
+         }
+      };
+   }//end StatementCache
+
+   /**
+    * Returns the cached statement for a query, preparing it on first use.
+    * Parameters of a cached statement are cleared before it is returned.
+    *
+    * @param sql the query with ? placeholders
+    * @return a prepared statement ready for binding
+    * @throws java.sql.SQLException when the statement cannot be prepared
+    */
+   public PreparedStatement prepare (String sql) throws SQLException {
+      PreparedStatement stmt = _statements.get(sql);
+      if (stmt != null && !stmt.isClosed()) {
+         ++_hits;
+         stmt.clearParameters();
+         return stmt;
+      }
+      ++_misses;
+      stmt = _conn.prepareStatement(sql);
+      _statements.put(sql, stmt);
+      return stmt;
+   }//end prepare
+
+   /**
+    * Closes every cached statement.
+    */
+   public void close () {
+      for (PreparedStatement stmt : _statements.values())
+         closeQuietly(stmt);
+      _statements.clear();
+   }//end close
+
+   public long getHits () { return _hits; }
+   public long getMisses () { return _misses; }
+   public int size () { return _statements.size(); }
+
+   private static void closeQuietly (PreparedStatement stmt) {
+      try {
+         stmt.close();
+      }catch (SQLException e) {
+         // ignored.
+      }
+   }//end closeQuietly
+
+}//end StatementCache
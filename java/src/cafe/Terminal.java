@@ -0,0 +1,196 @@
+/*
+ * Template JAVA User Interface
+ * =============================
+ *
+ * Database Management Systems
+ * Department of Computer Science &amp; Engineering
+ * University of California - Riverside
+ *
+ * Target DBMS: 'Postgres'
+ *
+ */
+
+package cafe;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Locale;
+
+/**
+ * The input side of one Cafe session and the user logged in on it. Each
+ * thread runs one session, so the menu code finds its terminal with
+ * current(); the keyboard is the terminal of any thread that has not bound
+ * another one, and the workload driver binds a scripted terminal to each
+ * simulated session. A terminal may also have an output of its own, such
+ * as a server session's socket; routeSystemStreams() sends what the menus
+ * print to System.out and System.err there.
+ *
+ */
+public class Terminal {
+
+   /**
+    * Receives the latency of every menu action run on a terminal.
+    */
+   public interface ActionListener {
+      void action (String name, long nanos);
+   }
+
+   private static final Terminal CONSOLE =
+      new Terminal(new BufferedReader(new InputStreamReader(System.in)), null, null);
+
+   private static final ThreadLocal<Terminal> CURRENT = ThreadLocal.withInitial(() -> CONSOLE);
+
+   private final BufferedReader _in;
+   private final ActionListener _listener;
+   private final PrintStream _out;
+   private volatile UserSession _user = null;
+
+   /**
+    * @param in where the session's keystrokes are read from
+    * @param listener told about every menu action, or null
+    */
+   public Terminal (BufferedReader in, ActionListener listener) {
+      this(in, listener, null);
+   }//end Terminal
+
+   /**
+    * @param in where the session's keystrokes are read from
+    * @param listener told about every menu action, or null
+    * @param out where the session's output goes once routeSystemStreams()
+    *        was called, or null for the process's own streams
+    */
+   public Terminal (BufferedReader in, ActionListener listener, PrintStream out) {
+      this._in = in;
+      this._listener = listener;
+      this._out = out;
+   }//end Terminal
+
+   /**
+    * Replaces System.out and System.err with streams that print to the
+    * output of the calling thread's terminal, or to the previous streams
+    * for terminals without one. Sessions never wait on each other's output.
+    */
+   public static synchronized void routeSystemStreams () {
+      if (System.out instanceof Routed)
+         return;
+      System.setOut(new Routed(System.out));
+      System.setErr(new Routed(System.err));
+   }//end routeSystemStreams
+
+   // prints to the output of the calling thread's terminal; no shared lock
+   private static final class Routed extends PrintStream {
+      private final PrintStream _fallback;
+
+      Routed(PrintStream fallback) {
+         super(OutputStream.nullOutputStream());
+         this._fallback = fallback;
+      }
+
+      private PrintStream target() {
+         PrintStream out = current()._out;
+         return out != null ? out : _fallback;
+      }
+
+      public void write(int b) { target().write(b); }
+      public void write(byte[] b, int off, int len) { target().write(b, off, len); }
+      public void write(byte[] b) { target().write(b, 0, b.length); }
+      public void flush() { target().flush(); }
+      public boolean checkError() { return target().checkError(); }
+      public void print(boolean b) { target().print(b); }
+      public void print(char c) { target().print(c); }
+      public void print(int i) { target().print(i); }
+      public void print(long l) { target().print(l); }
+      public void print(float f) { target().print(f); }
+      public void print(double d) { target().print(d); }
+      public void print(char[] s) { target().print(s); }
+      public void print(String s) { target().print(s); }
+      public void print(Object obj) { target().print(obj); }
+      public void println() { target().println(); }
+      public void println(boolean x) { target().println(x); }
+      public void println(char x) { target().println(x); }
+      public void println(int x) { target().println(x); }
+      public void println(long x) { target().println(x); }
+      public void println(float x) { target().println(x); }
+      public void println(double x) { target().println(x); }
+      public void println(char[] x) { target().println(x); }
+      public void println(String x) { target().println(x); }
+      public void println(Object x) { target().println(x); }
+      public PrintStream format(String format, Object... args) { target().format(format, args); return this; }
+      public PrintStream format(Locale l, String format, Object... args) { target().format(l, format, args); return this; }
+      public PrintStream printf(String format, Object... args) { return format(format, args); }
+      public PrintStream printf(Locale l, String format, Object... args) { return format(l, format, args); }
+      public PrintStream append(CharSequence csq) { print(String.valueOf(csq)); return this; }
+      public PrintStream append(CharSequence csq, int start, int end) {
+         print(String.valueOf(csq == null ? "null" : csq.subSequence(start, end)));
+         return this;
+      }
+      public PrintStream append(char c) { print(c); return this; }
+   }//end Routed
+
+   /**
+    * @return the terminal bound to the calling thread, the keyboard by default
+    */
+   public static Terminal current () {
+      return CURRENT.get();
+   }//end current
+
+   /**
+    * Makes a terminal the input of the calling thread.
+    *
+    * @param terminal the terminal to bind
+    */
+   public static void bind (Terminal terminal) {
+      CURRENT.set(terminal);
+   }//end bind
+
+   /**
+    * Returns the calling thread to the keyboard.
+    */
+   public static void unbind () {
+      CURRENT.remove();
+   }//end unbind
+
+   /**
+    * @return the next input line
+    * @throws EndOfInputException when the input is exhausted
+    * @throws java.io.IOException when reading failed
+    */
+   public String readLine () throws IOException {
+      if (_out != null)
+         _out.flush();
+      String line = _in.readLine();
+      if (line == null)
+         throw new EndOfInputException();
+      return line;
+   }//end readLine
+
+   public UserSession getUser () { return _user; }
+   public void setUser (UserSession user) { this._user = user; }
+
+   /**
+    * Prints a line on this terminal from another thread, e.g. a notice of
+    * a new order, and sends it at once.
+    *
+    * @param line the text to print
+    */
+   public void notice (String line) {
+      PrintStream out = _out != null ? _out : System.out;
+      out.println(line);
+      out.flush();
+   }//end notice
+
+   /**
+    * Reports how long a menu action took to the terminal's listener.
+    *
+    * @param name the action, e.g. AddOrder
+    * @param nanos elapsed time
+    */
+   public void recordAction (String name, long nanos) {
+      if (_listener != null)
+         _listener.action(name, nanos);
+   }//end recordAction
+
+}//end Terminal
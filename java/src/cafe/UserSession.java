@@ -0,0 +1,59 @@
+/*
+ * Template JAVA User Interface
+ * =============================
+ *
+ * Database Management Systems
+ * Department of Computer Science &amp; Engineering
+ * University of California - Riverside
+ *
+ * Target DBMS: 'Postgres'
+ *
+ */
+
+package cafe;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The user logged in to a Cafe session: login, role and profile, read once
+ * by LogIn so the menu actions never look the user up again.
+ *
+ */
+public class UserSession {
+
+   public static final String CUSTOMER = "Customer";
+   public static final String EMPLOYEE = "Employee";
+   public static final String MANAGER = "Manager";
+
+   private final String _login;
+   private final String _type;
+   private final String _phoneNum;
+   private List<String> _favorites;
+
+   public UserSession (String login, String type, String phoneNum, List<String> favorites) {
+      this._login = login;
+      this._type = type;
+      this._phoneNum = phoneNum;
+      this._favorites = Collections.unmodifiableList(new ArrayList<String>(favorites));
+   }//end UserSession
+
+   public String getLogin () { return _login; }
+   public String getType () { return _type; }
+   public String getPhoneNum () { return _phoneNum; }
+   public List<String> getFavorites () { return _favorites; }
+
+   /**
+    * Keeps the session in step after the user's favorites were updated.
+    *
+    * @param favorites the new favorite items
+    */
+   public void setFavorites (List<String> favorites) {
+      this._favorites = Collections.unmodifiableList(new ArrayList<String>(favorites));
+   }//end setFavorites
+
+   public boolean isCustomer () { return CUSTOMER.equals(_type); }
+   public boolean isManager () { return MANAGER.equals(_type); }
+
+}//end UserSession
@@ -0,0 +1,220 @@
+/*
+ * Template JAVA User Interface
+ * =============================
+ *
+ * Database Management Systems
+ * Department of Computer Science &amp; Engineering
+ * University of California - Riverside
+ *
+ * Target DBMS: 'Postgres'
+ *
+ */
+
+package cafe;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Replays scripted sessions through the real Cafe menus, many at once, one
+ * virtual thread per session, and reports the latency of every menu action.
+ * A script file holds the lines typed in each session, sessions separated
+ * by a line containing only ---. Without a script, sessions are generated.
+ *
+ * Usage: java -cp app/target/cafe-1.0-SNAPSHOT.jar:postgresql.jar cafe.WorkloadDriver
+ *             <dbname> <port> [--script file] [--sessions N] [--concurrency C] [--seed S]
+ */
+public class WorkloadDriver {
+
+   private static final String SESSION_SEPARATOR = "---";
+
+   // latencies of one action, appended by one session at a time
+   private static final class Samples {
+      long[] nanos = new long[64];
+      int count = 0;
+
+      void add(long value) {
+         if (count == nanos.length)
+            nanos = Arrays.copyOf(nanos, count * 2);
+         nanos[count++] = value;
+      }
+
+      void addAll(Samples other) {
+         for (int i = 0; i < other.count; ++i)
+            add(other.nanos[i]);
+      }
+   }//end Samples
+
+   public static void main (String[] args) throws Exception {
+      if (args.length < 2) {
+         System.err.println("Usage: java cafe.WorkloadDriver <dbname> <port> [--script file] [--sessions N] [--concurrency C] [--seed S]");
+         return;
+      }
+      String script = null;
+      int sessions = 1000;
+      int concurrency = 100;
+      long seed = 42L;
+      for (int i = 2; i + 1 < args.length; i += 2) {
+         switch (args[i]) {
+            case "--script": script = args[i + 1]; break;
+            case "--sessions": sessions = Integer.parseInt(args[i + 1]); break;
+            case "--concurrency": concurrency = Integer.parseInt(args[i + 1]); break;
+            case "--seed": seed = Long.parseLong(args[i + 1]); break;
+            default: throw new IllegalArgumentException("Unknown option " + args[i]);
+         }
+      }
+
+      Class.forName("org.postgresql.Driver");
+      Cafe esql = new Cafe(args[0], args[1]);
+      esql.getMenu();
+      esql.trackActiveOrdersFromSystemProperties();
+      esql.startIntakeFromSystemProperties();
+      MetricsDumper metrics = MetricsDumper.fromSystemProperties();
+
+      List<List<String>> scripts;
+      if (script != null) {
+         scripts = readScripts(script);
+      }
+      else {
+         WorkloadGenerator generator = new WorkloadGenerator(esql, seed, 0.2);
+         scripts = new ArrayList<List<String>>(sessions);
+         for (int i = 0; i < sessions; ++i)
+            scripts.add(generator.nextSession());
+      }
+
+      PrintStream report = System.out;
+      report.printf("Running %d sessions, %d at a time%n", scripts.size(), concurrency);
+      // the menus print to System.out; keep them off the console
+      System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+      Map<String, Samples> totals = new TreeMap<String, Samples>();
+      AtomicInteger failed = new AtomicInteger();
+      Semaphore inFlight = new Semaphore(concurrency);
+      long start = System.nanoTime();
+      try (ExecutorService sessionThreads = Executors.newVirtualThreadPerTaskExecutor()) {
+         for (List<String> lines : scripts) {
+            inFlight.acquire();
+            sessionThreads.execute(() -> {
+               Map<String, Samples> mine = new HashMap<String, Samples>();
+               try {
+                  runScript(esql, lines, mine);
+               }catch (Exception e) {
+                  failed.incrementAndGet();
+                  System.err.println(e.getMessage());
+               }finally {
+                  synchronized (totals) {
+                     for (Map.Entry<String, Samples> e : mine.entrySet())
+                        totals.computeIfAbsent(e.getKey(), k -> new Samples()).addAll(e.getValue());
+                  }
+                  inFlight.release();
+               }
+            });
+         }
+      }//end try, waits for every session
+      long elapsed = System.nanoTime() - start;
+      System.setOut(report);
+
+      report.printf("%d sessions in %.2fs (%.1f sessions/s), %d failed%n",
+                    scripts.size(), elapsed / 1e9, scripts.size() / (elapsed / 1e9), failed.get());
+      report.printf("%-24s %8s %10s %10s %10s %10s %10s%n", "action", "count", "mean ms", "p50 ms", "p95 ms", "p99 ms", "max ms");
+      for (Map.Entry<String, Samples> e : totals.entrySet()) {
+         Samples s = e.getValue();
+         long[] sorted = Arrays.copyOf(s.nanos, s.count);
+         Arrays.sort(sorted);
+         long sum = 0;
+         for (long v : sorted)
+            sum += v;
+         report.printf("%-24s %8d %10.3f %10.3f %10.3f %10.3f %10.3f%n", e.getKey(), s.count,
+                       sum / 1e6 / s.count, percentile(sorted, 0.50), percentile(sorted, 0.95),
+                       percentile(sorted, 0.99), sorted[sorted.length - 1] / 1e6);
+      }
+      report.println(esql.getPool().stats());
+      if (esql.getIntake() != null)
+         report.println(esql.getIntake().stats());
+      printStatementLatency(report);
+      checkActiveOrders(esql, report);
+      esql.cleanup();
+      if (metrics != null)
+         metrics.close();
+   }//end main
+
+   // where the time of the run went, by Cafe SQL method
+   private static void printStatementLatency (PrintStream report) {
+      report.printf("%-30s %10s %8s %10s %10s %10s %10s%n", "statement", "count", "errors", "mean ms", "p50 ms", "p99 ms", "p999 ms");
+      for (LatencyHistogram histogram : Cafe.getStatementLatency().histograms().values()) {
+         LatencyHistogram.Snapshot s = histogram.snapshot();
+         if (s.getCount() == 0)
+            continue;
+         report.printf("%-30s %10d %8d %10.3f %10.3f %10.3f %10.3f%n", histogram.getName(), s.getCount(), s.getErrorCount(),
+                       s.getMeanNanos() / 1e6, s.percentileNanos(0.50) / 1e6, s.percentileNanos(0.99) / 1e6,
+                       s.percentileNanos(0.999) / 1e6);
+      }
+   }//end printStatementLatency
+
+   // compares the in-memory active orders with the tables after the run
+   private static void checkActiveOrders (Cafe esql, PrintStream report) throws Exception {
+      ActiveOrders active = esql.getActiveOrders();
+      if (active == null)
+         return;
+      List<String> differences = active.check(esql);
+      if (!differences.isEmpty()) {
+         // the feed may still be applying the last commits
+         Thread.sleep(2000);
+         differences = active.check(esql);
+      }
+      report.printf("Active orders: %d in memory, %d differences from the tables%n", active.size(), differences.size());
+      for (String difference : differences.subList(0, Math.min(10, differences.size())))
+         report.println("  " + difference);
+   }//end checkActiveOrders
+
+   // runs one session's lines through the menus on the calling thread
+   private static void runScript (Cafe esql, List<String> lines, Map<String, Samples> samples) throws Exception {
+      BufferedReader input = new BufferedReader(new StringReader(String.join("\n", lines)));
+      Terminal.bind(new Terminal(input, (name, nanos) ->
+         samples.computeIfAbsent(name, k -> new Samples()).add(nanos)));
+      try {
+         Cafe.RunSession(esql);
+      }finally {
+         Terminal.unbind();
+      }
+   }//end runScript
+
+   private static List<List<String>> readScripts (String file) throws IOException {
+      List<List<String>> scripts = new ArrayList<List<String>>();
+      List<String> current = new ArrayList<String>();
+      for (String line : Files.readAllLines(Paths.get(file))) {
+         if (line.equals(SESSION_SEPARATOR)) {
+            if (!current.isEmpty())
+               scripts.add(current);
+            current = new ArrayList<String>();
+         }
+         else {
+            current.add(line);
+         }
+      }
+      if (!current.isEmpty())
+         scripts.add(current);
+      return scripts;
+   }//end readScripts
+
+   private static double percentile (long[] sorted, double p) {
+      int index = (int) Math.ceil(p * sorted.length) - 1;
+      return sorted[Math.max(0, index)] / 1e6;
+   }//end percentile
+
+}//end WorkloadDriver
@@ -0,0 +1,153 @@
+/*
+ * Template JAVA User Interface
+ * =============================
+ *
+ * Database Management Systems
+ * Department of Computer Science &amp; Engineering
+ * University of California - Riverside
+ *
+ * Target DBMS: 'Postgres'
+ *
+ */
+
+package cafe;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates scripted Cafe sessions: the exact lines a user would type at
+ * the menus. Customers log in, browse, place an order of one to four items
+ * and look at their history; employees log in, look at current orders and
+ * move the items of recent orders through their statuses. Generation is
+ * deterministic for a given seed and database contents.
+ *
+ */
+public class WorkloadGenerator {
+
+   private final Random _random;
+   private final List<String[]> _customers;
+   private final List<String[]> _employees;
+   private final List<MenuItem> _items;
+   private final List<String> _types;
+   private final List<Object[]> _recentItems;
+   private final double _employeeShare;
+
+   /**
+    * Reads users, menu and recent order items to build sessions from.
+    *
+    * @param esql the database the workload will run against
+    * @param seed random seed
+    * @param employeeShare fraction of sessions run by employees
+    * @throws java.sql.SQLException when the database cannot be read
+    */
+   public WorkloadGenerator (Cafe esql, long seed, double employeeShare) throws SQLException {
+      this._random = new Random(seed);
+      this._employeeShare = employeeShare;
+      RowMapper<String[]> credentials = rs -> new String[] { rs.getString(1).stripTrailing(), rs.getString(2).stripTrailing() };
+      this._customers = esql.executeQueryAndMap(
+         "SELECT login, password FROM Users WHERE type = 'Customer' ORDER BY login LIMIT 10000", credentials);
+      this._employees = esql.executeQueryAndMap(
+         "SELECT login, password FROM Users WHERE type <> 'Customer' ORDER BY login", credentials);
+      this._recentItems = esql.executeQueryAndMap(
+         "SELECT orderid, itemName FROM ItemStatus WHERE orderid > (SELECT max(orderid) - 1000 FROM Orders) ORDER BY orderid, itemName",
+         rs -> new Object[] { rs.getInt(1), rs.getString(2).stripTrailing() });
+      this._items = new ArrayList<MenuItem>();
+      this._types = new ArrayList<String>();
+      for (MenuItem item : esql.getMenu().all()) {
+         _items.add(item);
+         if (!_types.contains(item.getType()))
+            _types.add(item.getType());
+      }
+      _items.sort((a, b) -> a.getItemName().compareTo(b.getItemName()));
+      _types.sort(null);
+      if (_customers.isEmpty() || _items.isEmpty())
+         throw new SQLException("The database has no customers or no menu to build sessions from");
+   }//end WorkloadGenerator
+
+   /**
+    * @return the input lines of one generated session
+    */
+   public List<String> nextSession () {
+      if (!_employees.isEmpty() && _random.nextDouble() < _employeeShare)
+         return employeeSession();
+      return customerSession();
+   }//end nextSession
+
+   private List<String> customerSession () {
+      List<String> lines = new ArrayList<String>();
+      logIn(lines, pick(_customers));
+
+      // browse a type and look at one item
+      lines.add("2");
+      lines.add(pick(_types));
+      lines.add("1");
+      lines.add(pick(_items).getItemName());
+
+      // order one to four distinct items
+      lines.add("3");
+      List<String> chosen = new ArrayList<String>();
+      int count = 1 + _random.nextInt(Math.min(4, _items.size()));
+      while (chosen.size() < count) {
+         String item = pick(_items).getItemName();
+         if (chosen.contains(item))
+            continue;
+         chosen.add(item);
+         lines.add("1");
+         lines.add(item);
+      }
+      lines.add("4");
+
+      // order history over all dates, sometimes one page further back
+      lines.add("5");
+      lines.add("");
+      lines.add("");
+      if (_random.nextBoolean())
+         lines.add("1");
+      lines.add("3");
+      logOut(lines);
+      return lines;
+   }//end customerSession
+
+   private List<String> employeeSession () {
+      List<String> lines = new ArrayList<String>();
+      logIn(lines, pick(_employees));
+
+      lines.add("5");
+      if (!_recentItems.isEmpty()) {
+         // move two items of recent orders along
+         for (int i = 0; i < 2; ++i) {
+            Object[] item = pick(_recentItems);
+            lines.add("4");
+            lines.add("1");
+            lines.add(item[0].toString());
+            lines.add(_random.nextBoolean() ? "2" : "3");
+            lines.add((String) item[1]);
+            lines.add("4");
+            lines.add("7");
+         }
+         lines.add("6");
+         lines.add(pick(_recentItems)[0].toString());
+      }
+      logOut(lines);
+      return lines;
+   }//end employeeSession
+
+   private static void logIn (List<String> lines, String[] user) {
+      lines.add("2");
+      lines.add(user[0]);
+      lines.add(user[1]);
+   }//end logIn
+
+   private static void logOut (List<String> lines) {
+      lines.add("9");
+      lines.add("9");
+   }//end logOut
+
+   private <T> T pick (List<T> list) {
+      return list.get(_random.nextInt(list.size()));
+   }//end pick
+
+}//end WorkloadGenerator
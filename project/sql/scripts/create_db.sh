@@ -1,5 +1,12 @@
 #!/bin/bash
 DIR="$( cd "$( dirname "${BASH_SOURCE[0]}" )" && pwd )"
 psql -h 127.0.0.1 mydb < $DIR/../src/create_tables.sql
+psql -h 127.0.0.1 mydb < $DIR/../src/create_partitions.sql
+psql -h 127.0.0.1 mydb < $DIR/../src/create_triggers.sql
+psql -h 127.0.0.1 mydb < $DIR/../src/migrate_favorites.sql
+# \copy paths in load_data.sql are relative to the data directory
+(cd $DIR/../../data && psql -h 127.0.0.1 mydb -f $DIR/../src/load_data.sql)
+# the order feed triggers would publish every loaded row
+psql -h 127.0.0.1 mydb < $DIR/../src/create_notify.sql
+# indexes are cheaper to build after the data is in
 psql -h 127.0.0.1 mydb < $DIR/../src/create_indexes.sql
-psql -h 127.0.0.1 mydb < $DIR/../src/load_data.sql
@@ -0,0 +1,5 @@
+#!/bin/bash
+DIR="$( cd "$( dirname "${BASH_SOURCE[0]}" )" && pwd )"
+# usage: explain_indexes.sh [orders]  (writes reports/explain_indexes.txt)
+mkdir -p $DIR/../reports
+psql -h 127.0.0.1 -v orders=${1:-3000000} mydb -f $DIR/../src/explain_indexes.sql > $DIR/../reports/explain_indexes.txt
@@ -0,0 +1,36 @@
+-- Indexes derived from the queries issued by java/src/cafe/Cafe.java.
+-- Primary keys already cover Users(login), Menu(itemName) and, in each weekly
+-- partition, Orders(orderid, timeStampRecieved) and ItemStatus(orderid,
+-- itemName, orderReceived). Lookups by orderid pass order_received(orderid)
+-- of create_partitions.sql as the time, so only one partition is read.
+
+-- ViewOrderHistory (OrderHistory): WHERE login = ? [AND orderid < ?]
+-- ORDER BY orderid DESC LIMIT ?, seeking from the edge of the current page;
+-- newer pages read the same index upwards with orderid > ?
+CREATE INDEX IF NOT EXISTS orders_login_orderid_idx
+	ON Orders (login, orderid DESC);
+
+-- ViewCurrentOrder: WHERE paid = false AND timeStampRecieved >= NOW() - '1 day'
+-- Only unpaid orders are ever searched by time, so the index stays small.
+CREATE INDEX IF NOT EXISTS orders_unpaid_received_idx
+	ON Orders (timeStampRecieved)
+	WHERE paid = false;
+
+-- UpdateOrder: WHERE orderid = ? AND status = 'Hasn''t Started'
+-- ViewOrderStatus / EmployeeUpdateOrder: WHERE orderid = ?, selecting status
+CREATE INDEX IF NOT EXISTS itemstatus_orderid_status_idx
+	ON ItemStatus (orderid, status);
+
+-- Favorites.customersOf: WHERE itemName = ? ORDER BY login
+-- (the primary key serves lookups by login)
+CREATE INDEX IF NOT EXISTS userfavorites_item_login_idx
+	ON UserFavorites (itemName, login);
+
+-- BrowseMenuType: WHERE type = ?
+CREATE INDEX IF NOT EXISTS menu_type_idx
+	ON Menu (type);
+
+ANALYZE Orders;
+ANALYZE ItemStatus;
+ANALYZE Menu;
+ANALYZE UserFavorites;
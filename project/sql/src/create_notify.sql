@@ -0,0 +1,132 @@
+-- Live order feed. Changes to Orders and ItemStatus are published on the
+-- cafe_orders channel, one NOTIFY per changed row, and delivered to the
+-- listeners when the writing transaction commits. java/src/cafe/OrderFeed.java
+-- keeps the employees' view of current orders from these messages.
+--
+-- Payloads are ';'-separated, with the free-text item name last:
+--   order;<orderid>;<paid t|f>;<timeStampRecieved>   new order, or order paid
+--   unpaid;<orderid>;<timeStampRecieved>             paid order marked unpaid
+--   delete;<orderid>                                 order deleted
+--   item;<orderid>;<status>;<itemName>               item added or status changed
+--   remove;<orderid>;<itemName>                      item deleted
+--   reload                                           too many changes to list
+--
+-- BulkLoader and DataGenerator --load disable these triggers and send a
+-- single reload when they are done. load_data.sql leaves them alone, so
+-- create_db.sh runs this file after the initial load instead.
+
+CREATE OR REPLACE FUNCTION cafe_feed_limit() RETURNS int AS $$
+	SELECT 500
+$$ LANGUAGE sql IMMUTABLE;
+
+CREATE OR REPLACE FUNCTION orders_feed_insert() RETURNS trigger AS $$
+BEGIN
+	IF (SELECT count(*) FROM added) > cafe_feed_limit() THEN
+		PERFORM pg_notify('cafe_orders', 'reload');
+	ELSE
+		PERFORM pg_notify('cafe_orders', concat_ws(';', 'order', orderid, CASE WHEN paid THEN 't' ELSE 'f' END,
+		                                           to_char(timeStampRecieved, 'YYYY-MM-DD HH24:MI:SS.US')))
+		FROM added ORDER BY orderid;
+	END IF;
+	RETURN NULL;
+END $$ LANGUAGE plpgsql;
+
+-- only paid matters to the feed; the totals triggers update Orders on
+-- every item and must not publish anything
+CREATE OR REPLACE FUNCTION orders_feed_update() RETURNS trigger AS $$
+BEGIN
+	IF (SELECT count(*) FROM new_rows) > cafe_feed_limit() THEN
+		PERFORM pg_notify('cafe_orders', 'reload');
+	ELSE
+		PERFORM pg_notify('cafe_orders', CASE WHEN A.paid
+		                                      THEN concat_ws(';', 'order', A.orderid, 't', to_char(A.timeStampRecieved, 'YYYY-MM-DD HH24:MI:SS.US'))
+		                                      ELSE concat_ws(';', 'unpaid', A.orderid, to_char(A.timeStampRecieved, 'YYYY-MM-DD HH24:MI:SS.US'))
+		                                 END)
+		FROM new_rows A JOIN old_rows B ON B.orderid = A.orderid AND B.timeStampRecieved = A.timeStampRecieved
+		WHERE A.paid IS DISTINCT FROM B.paid
+		ORDER BY A.orderid;
+	END IF;
+	RETURN NULL;
+END $$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION orders_feed_delete() RETURNS trigger AS $$
+BEGIN
+	IF (SELECT count(*) FROM removed) > cafe_feed_limit() THEN
+		PERFORM pg_notify('cafe_orders', 'reload');
+	ELSE
+		PERFORM pg_notify('cafe_orders', 'delete;' || orderid) FROM removed ORDER BY orderid;
+	END IF;
+	RETURN NULL;
+END $$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION itemstatus_feed_insert() RETURNS trigger AS $$
+BEGIN
+	IF (SELECT count(*) FROM added) > cafe_feed_limit() THEN
+		PERFORM pg_notify('cafe_orders', 'reload');
+	ELSE
+		PERFORM pg_notify('cafe_orders', concat_ws(';', 'item', orderid, status, itemName))
+		FROM added ORDER BY orderid;
+	END IF;
+	RETURN NULL;
+END $$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION itemstatus_feed_update() RETURNS trigger AS $$
+BEGIN
+	IF (SELECT count(*) FROM new_rows) > cafe_feed_limit() THEN
+		PERFORM pg_notify('cafe_orders', 'reload');
+	ELSE
+		PERFORM pg_notify('cafe_orders', concat_ws(';', 'item', A.orderid, A.status, A.itemName))
+		FROM new_rows A JOIN old_rows B
+		  ON B.orderid = A.orderid AND B.itemName = A.itemName AND B.orderReceived = A.orderReceived
+		WHERE A.status IS DISTINCT FROM B.status
+		ORDER BY A.orderid;
+	END IF;
+	RETURN NULL;
+END $$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION itemstatus_feed_delete() RETURNS trigger AS $$
+BEGIN
+	IF (SELECT count(*) FROM removed) > cafe_feed_limit() THEN
+		PERFORM pg_notify('cafe_orders', 'reload');
+	ELSE
+		PERFORM pg_notify('cafe_orders', concat_ws(';', 'remove', orderid, itemName))
+		FROM removed ORDER BY orderid;
+	END IF;
+	RETURN NULL;
+END $$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS orders_feed_insert ON Orders;
+CREATE TRIGGER orders_feed_insert
+	AFTER INSERT ON Orders
+	REFERENCING NEW TABLE AS added
+	FOR EACH STATEMENT EXECUTE FUNCTION orders_feed_insert();
+
+DROP TRIGGER IF EXISTS orders_feed_update ON Orders;
+CREATE TRIGGER orders_feed_update
+	AFTER UPDATE ON Orders
+	REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+	FOR EACH STATEMENT EXECUTE FUNCTION orders_feed_update();
+
+DROP TRIGGER IF EXISTS orders_feed_delete ON Orders;
+CREATE TRIGGER orders_feed_delete
+	AFTER DELETE ON Orders
+	REFERENCING OLD TABLE AS removed
+	FOR EACH STATEMENT EXECUTE FUNCTION orders_feed_delete();
+
+DROP TRIGGER IF EXISTS itemstatus_feed_insert ON ItemStatus;
+CREATE TRIGGER itemstatus_feed_insert
+	AFTER INSERT ON ItemStatus
+	REFERENCING NEW TABLE AS added
+	FOR EACH STATEMENT EXECUTE FUNCTION itemstatus_feed_insert();
+
+DROP TRIGGER IF EXISTS itemstatus_feed_update ON ItemStatus;
+CREATE TRIGGER itemstatus_feed_update
+	AFTER UPDATE ON ItemStatus
+	REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+	FOR EACH STATEMENT EXECUTE FUNCTION itemstatus_feed_update();
+
+DROP TRIGGER IF EXISTS itemstatus_feed_delete ON ItemStatus;
+CREATE TRIGGER itemstatus_feed_delete
+	AFTER DELETE ON ItemStatus
+	REFERENCING OLD TABLE AS removed
+	FOR EACH STATEMENT EXECUTE FUNCTION itemstatus_feed_delete();
@@ -0,0 +1,134 @@
+-- Weekly range partitions: Orders by timeStampRecieved and ItemStatus by
+-- orderReceived, the time of the item's order, so both tables split at the
+-- same weeks. Partitions are named orders_pYYYYMMDD and itemstatus_pYYYYMMDD
+-- after the Monday their week starts on.
+--
+-- The client calls maintain_partitions() at start-up and every hour. It
+-- creates the coming weeks. Old weeks are kept, so the whole order history
+-- stays browsable, unless a retention period is asked for. Bulk loads call ensure_partitions() for the time range
+-- of their data first; rows outside every partition are rejected.
+-- SchemaMigrator passes its copies of the tables as the parents, so the
+-- partitions already have their final names when the copies are swapped in.
+--
+-- ViewCurrentOrder (timeStampRecieved >= NOW() - '1 day') only touches the
+-- last one or two weekly partitions however much history is kept.
+--
+-- A partitioned table has no index over all its partitions, so a lookup by
+-- orderid alone probes the orderid index of every week. OrderTimes maps each
+-- orderid to its order's time; the client compares order_received(orderid)
+-- with the partition key, and Postgres reads only that week.
+
+CREATE TABLE IF NOT EXISTS OrderTimes(
+	orderid integer NOT NULL,
+	timeStampRecieved timestamp NOT NULL,
+	PRIMARY KEY(orderid));
+
+CREATE OR REPLACE FUNCTION ordertimes_add() RETURNS trigger AS $$
+BEGIN
+	INSERT INTO OrderTimes
+	SELECT DISTINCT ON (orderid) orderid, timeStampRecieved FROM added ORDER BY orderid, timeStampRecieved DESC
+	ON CONFLICT (orderid) DO UPDATE SET timeStampRecieved = EXCLUDED.timeStampRecieved;
+	RETURN NULL;
+END $$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION ordertimes_remove() RETURNS trigger AS $$
+BEGIN
+	DELETE FROM OrderTimes T USING removed R
+	WHERE T.orderid = R.orderid AND T.timeStampRecieved = R.timeStampRecieved;
+	RETURN NULL;
+END $$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS ordertimes_insert ON Orders;
+CREATE TRIGGER ordertimes_insert
+	AFTER INSERT ON Orders
+	REFERENCING NEW TABLE AS added
+	FOR EACH STATEMENT EXECUTE FUNCTION ordertimes_add();
+
+DROP TRIGGER IF EXISTS ordertimes_delete ON Orders;
+CREATE TRIGGER ordertimes_delete
+	AFTER DELETE ON Orders
+	REFERENCING OLD TABLE AS removed
+	FOR EACH STATEMENT EXECUTE FUNCTION ordertimes_remove();
+
+-- orders already in the database
+INSERT INTO OrderTimes SELECT orderid, timeStampRecieved FROM Orders
+ON CONFLICT (orderid) DO UPDATE SET timeStampRecieved = EXCLUDED.timeStampRecieved;
+
+-- the time of an order, or null when there is no such order; an orderid
+-- missing from OrderTimes is looked for in every week instead
+CREATE OR REPLACE FUNCTION order_received(id integer) RETURNS timestamp AS $$
+	SELECT COALESCE((SELECT timeStampRecieved FROM OrderTimes WHERE orderid = id),
+	                (SELECT max(timeStampRecieved) FROM Orders WHERE orderid = id))
+$$ LANGUAGE sql STABLE;
+
+DROP FUNCTION IF EXISTS ensure_partitions(timestamp, timestamp);
+CREATE OR REPLACE FUNCTION ensure_partitions(from_ts timestamp, to_ts timestamp,
+                                             orders_table text DEFAULT 'orders',
+                                             itemstatus_table text DEFAULT 'itemstatus')
+RETURNS integer AS $$
+DECLARE
+	week timestamp := date_trunc('week', from_ts);
+	suffix text;
+	created integer := 0;
+BEGIN
+	WHILE week <= to_ts LOOP
+		suffix := to_char(week, 'YYYYMMDD');
+		IF to_regclass('orders_p' || suffix) IS NULL THEN
+			EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+			               'orders_p' || suffix, orders_table, week, week + interval '1 week');
+			created := created + 1;
+		END IF;
+		IF to_regclass('itemstatus_p' || suffix) IS NULL THEN
+			EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+			               'itemstatus_p' || suffix, itemstatus_table, week, week + interval '1 week');
+		END IF;
+		week := week + interval '1 week';
+	END LOOP;
+	RETURN created;
+END $$ LANGUAGE plpgsql;
+
+-- detaches and drops every week that ends at or before older_than
+CREATE OR REPLACE FUNCTION retire_partitions(older_than timestamp) RETURNS integer AS $$
+DECLARE
+	part record;
+	dropped integer := 0;
+BEGIN
+	FOR part IN
+		SELECT right(c.relname, 8) AS suffix
+		FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid
+		WHERE i.inhparent = 'orders'::regclass AND c.relname ~ '^orders_p[0-9]{8}$'
+		ORDER BY 1
+	LOOP
+		EXIT WHEN to_date(part.suffix, 'YYYYMMDD') + interval '1 week' > older_than;
+		IF to_regclass('itemstatus_p' || part.suffix) IS NOT NULL THEN
+			EXECUTE format('ALTER TABLE ItemStatus DETACH PARTITION %I', 'itemstatus_p' || part.suffix);
+			EXECUTE format('DROP TABLE %I', 'itemstatus_p' || part.suffix);
+		END IF;
+		EXECUTE format('ALTER TABLE Orders DETACH PARTITION %I', 'orders_p' || part.suffix);
+		EXECUTE format('DROP TABLE %I', 'orders_p' || part.suffix);
+		dropped := dropped + 1;
+		DELETE FROM OrderTimes WHERE timeStampRecieved < to_date(part.suffix, 'YYYYMMDD') + interval '1 week';
+	END LOOP;
+	RETURN dropped;
+END $$ LANGUAGE plpgsql;
+
+-- keeps ahead_weeks of partitions ready and, when retain_weeks > 0, drops
+-- the weeks older than that; concurrent callers skip instead of waiting, and
+-- a char(n) database that SchemaMigrator has not converted yet is left alone
+CREATE OR REPLACE FUNCTION maintain_partitions(retain_weeks integer DEFAULT 0, ahead_weeks integer DEFAULT 4)
+RETURNS integer AS $$
+DECLARE
+	changed integer;
+BEGIN
+	IF NOT pg_try_advisory_xact_lock(hashtext('cafe_partitions'))
+	   OR (SELECT relkind FROM pg_class WHERE oid = to_regclass('orders')) <> 'p' THEN
+		RETURN 0;
+	END IF;
+	changed := ensure_partitions(LOCALTIMESTAMP, LOCALTIMESTAMP + ahead_weeks * interval '1 week');
+	IF retain_weeks > 0 THEN
+		changed := changed + retire_partitions(LOCALTIMESTAMP - retain_weeks * interval '1 week');
+	END IF;
+	RETURN changed;
+END $$ LANGUAGE plpgsql;
+
+SELECT maintain_partitions();
@@ -0,0 +1,18 @@
+-- Fuzzy item-name searches in the database, matching what the client does
+-- in memory for the menu (java/src/cafe/NameIndex.java): the start of a
+-- word or a misspelled name, ranked by trigram similarity. Needs the
+-- pg_trgm contrib extension, so it is not part of create_db.sh; every
+-- ItemStatus insert also pays for the GIN index.
+--
+-- Orders that contain an item spelled like 'capucino':
+--   SELECT orderid, itemName, similarity(itemName, 'capucino') AS score
+--   FROM ItemStatus WHERE itemName % 'capucino' ORDER BY score DESC;
+-- Orders with an item that has a word starting with 'soup':
+--   SELECT orderid, itemName FROM ItemStatus WHERE itemName ~* '\msoup';
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS itemstatus_itemname_trgm_idx
+	ON ItemStatus USING gin (itemName gin_trgm_ops);
+
+ANALYZE ItemStatus;
@@ -1,38 +1,65 @@
+DROP TABLE UserFavorites;
+DROP TABLE IF EXISTS OrderTimes;
 DROP TABLE Users CASCADE;
 DROP TABLE Orders CASCADE;
 DROP TABLE Menu CASCADE;
 DROP TABLE ItemStatus;
+DROP TYPE IF EXISTS user_type;
+DROP TYPE IF EXISTS item_status;
+
+-- Text columns are varchar, which stores only the characters used; char(n)
+-- pads every value to n. Roles and item statuses are 4-byte enums.
+-- java/src/cafe/SchemaMigrator.java converts a database created with the
+-- earlier char(n) schema while it stays in use.
+CREATE TYPE user_type AS ENUM ('Customer', 'Employee', 'Manager');
+CREATE TYPE item_status AS ENUM ('Hasn''t Started', 'Started', 'Finished');
 
 CREATE TABLE Users(
-	login char(50) UNIQUE NOT NULL, 
-	phoneNum char(16) UNIQUE, 
-	password char(50) NOT NULL,
-	favItems char(400),
-	type char(8) NOT NULL,
+	login varchar(50) NOT NULL, 
+	phoneNum varchar(16) UNIQUE, 
+	password varchar(50) NOT NULL,
+	favItems varchar(400), -- load format only, moved to UserFavorites
+	type user_type NOT NULL,
 	PRIMARY KEY(login));
 
 CREATE TABLE Menu(
-	itemName char(50) UNIQUE NOT NULL,
-	type char(20) NOT NULL,
+	itemName varchar(50) NOT NULL,
+	type varchar(20) NOT NULL,
 	price real NOT NULL,
-	description char(400),
-	imageURL char(256),
+	description varchar(400),
+	imageURL varchar(256),
 	PRIMARY KEY(itemName));
 
+-- Orders and ItemStatus are partitioned by week of the order's time (see
+-- create_partitions.sql), so keys include it; ItemStatus carries the time
+-- of its order in orderReceived.
 CREATE TABLE Orders(
-	orderid serial UNIQUE NOT NULL,
-	login char(50), 
+	orderid serial NOT NULL,
+	login varchar(50), 
 	paid boolean,
-	timeStampRecieved timestamp NOT NULL,
+	timeStampRecieved timestamp NOT NULL DEFAULT statement_timestamp(),
 	total real NOT NULL,
-	PRIMARY KEY(orderid));
+	PRIMARY KEY(orderid, timeStampRecieved))
+	PARTITION BY RANGE (timeStampRecieved);
 
 CREATE TABLE ItemStatus(
 	orderid integer,
-	itemName char(50), 
-	lastUpdated timestamp NOT NULL,
-	status char(20), 
-	comments char(130), 
-	PRIMARY KEY(orderid,itemName),
-	FOREIGN KEY(orderid) REFERENCES Orders(orderid),
-	FOREIGN KEY(itemName) REFERENCES Menu(itemName));
+	itemName varchar(50), 
+	lastUpdated timestamp NOT NULL DEFAULT statement_timestamp(),
+	status item_status, 
+	comments varchar(130), 
+	price real NOT NULL,
+	orderReceived timestamp NOT NULL,
+	PRIMARY KEY(orderid,itemName,orderReceived),
+	FOREIGN KEY(orderid,orderReceived) REFERENCES Orders(orderid,timeStampRecieved) ON DELETE CASCADE,
+	FOREIGN KEY(itemName) REFERENCES Menu(itemName))
+	PARTITION BY RANGE (orderReceived);
+
+-- favorites as rows instead of the favItems list; migrate_favorites.sql
+-- moves favItems over after a load
+CREATE TABLE UserFavorites(
+	login varchar(50) NOT NULL,
+	itemName varchar(50) NOT NULL,
+	PRIMARY KEY(login, itemName),
+	FOREIGN KEY(login) REFERENCES Users(login) ON DELETE CASCADE ON UPDATE CASCADE,
+	FOREIGN KEY(itemName) REFERENCES Menu(itemName) ON DELETE CASCADE ON UPDATE CASCADE);
@@ -0,0 +1,53 @@
+-- Orders.total is maintained by the database. Every ItemStatus row records
+-- the menu price when it is inserted, and each INSERT or DELETE statement on
+-- ItemStatus adds or subtracts those prices from their orders in a single
+-- UPDATE, so concurrent sessions never read a total to write it back.
+--
+-- Bulk loads that bring their own Orders.total (load_data.sql, BulkLoader)
+-- disable itemstatus_total_insert around the ItemStatus COPY.
+
+-- databases created before ItemStatus.price existed
+ALTER TABLE ItemStatus ADD COLUMN IF NOT EXISTS price real;
+UPDATE ItemStatus I SET price = M.price FROM Menu M WHERE I.price IS NULL AND M.itemName = I.itemName;
+ALTER TABLE ItemStatus ALTER COLUMN price SET NOT NULL;
+
+CREATE OR REPLACE FUNCTION itemstatus_capture_price() RETURNS trigger AS $$
+BEGIN
+	IF NEW.price IS NULL THEN
+		SELECT price INTO NEW.price FROM Menu WHERE itemName = NEW.itemName;
+	END IF;
+	RETURN NEW;
+END $$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION itemstatus_add_totals() RETURNS trigger AS $$
+BEGIN
+	UPDATE Orders O SET total = O.total + A.total
+	FROM (SELECT orderid, orderReceived, sum(price) AS total FROM added GROUP BY orderid, orderReceived) A
+	WHERE O.orderid = A.orderid AND O.timeStampRecieved = A.orderReceived;
+	RETURN NULL;
+END $$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION itemstatus_subtract_totals() RETURNS trigger AS $$
+BEGIN
+	UPDATE Orders O SET total = O.total - R.total
+	FROM (SELECT orderid, orderReceived, sum(price) AS total FROM removed GROUP BY orderid, orderReceived) R
+	WHERE O.orderid = R.orderid AND O.timeStampRecieved = R.orderReceived;
+	RETURN NULL;
+END $$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS itemstatus_price ON ItemStatus;
+CREATE TRIGGER itemstatus_price
+	BEFORE INSERT ON ItemStatus
+	FOR EACH ROW EXECUTE FUNCTION itemstatus_capture_price();
+
+DROP TRIGGER IF EXISTS itemstatus_total_insert ON ItemStatus;
+CREATE TRIGGER itemstatus_total_insert
+	AFTER INSERT ON ItemStatus
+	REFERENCING NEW TABLE AS added
+	FOR EACH STATEMENT EXECUTE FUNCTION itemstatus_add_totals();
+
+DROP TRIGGER IF EXISTS itemstatus_total_delete ON ItemStatus;
+CREATE TRIGGER itemstatus_total_delete
+	AFTER DELETE ON ItemStatus
+	REFERENCING OLD TABLE AS removed
+	FOR EACH STATEMENT EXECUTE FUNCTION itemstatus_subtract_totals();
@@ -0,0 +1,92 @@
+-- Before/after EXPLAIN ANALYZE report for create_indexes.sql.
+--
+-- Builds a scratch copy of the schema in index_report, fills Orders and
+-- ItemStatus with generated rows (:orders orders, 1-4 items each, default
+-- 3,000,000), runs every indexed Cafe query without the indexes, creates
+-- them and runs the same queries again. Menu, Users and UserFavorites are
+-- copied from the loaded database, so run create_db.sh first.
+--
+--   psql -h 127.0.0.1 -v orders=3000000 mydb -f explain_indexes.sql > report.txt
+
+\set ON_ERROR_STOP on
+\if :{?orders}
+\else
+\set orders 3000000
+\endif
+\timing off
+
+DROP SCHEMA IF EXISTS index_report CASCADE;
+CREATE SCHEMA index_report;
+SET search_path = index_report;
+
+-- copy columns and primary keys only, so "before" has no secondary indexes;
+-- the copies are not partitioned
+CREATE TABLE Users (LIKE public.Users, PRIMARY KEY (login));
+CREATE TABLE Menu (LIKE public.Menu, PRIMARY KEY (itemName));
+CREATE TABLE Orders (LIKE public.Orders, PRIMARY KEY (orderid));
+CREATE TABLE ItemStatus (LIKE public.ItemStatus, PRIMARY KEY (orderid, itemName));
+CREATE TABLE UserFavorites (LIKE public.UserFavorites, PRIMARY KEY (login, itemName));
+INSERT INTO Users SELECT * FROM public.Users;
+INSERT INTO Menu SELECT * FROM public.Menu;
+INSERT INTO UserFavorites SELECT * FROM public.UserFavorites;
+
+\echo 'Generating' :orders 'orders'
+-- orders spread over the last year, customers picked at random; only the
+-- last few hours' orders are still unpaid
+INSERT INTO Orders (orderid, login, paid, timeStampRecieved, total)
+SELECT g,
+       u.logins[1 + (hashint4(g) & 2147483647) % array_length(u.logins, 1)],
+       ts < NOW() - '6 hours'::interval OR random() < 0.3,
+       ts,
+       0
+FROM generate_series(1, :orders) g,
+     LATERAL (SELECT NOW() - (:orders - g) * ('365 days'::interval / :orders) AS ts) t,
+     (SELECT array_agg(login) AS logins FROM Users) u;
+
+INSERT INTO ItemStatus (orderid, itemName, lastUpdated, status, comments, price, orderReceived)
+SELECT o.orderid,
+       m.items[p.i],
+       o.timeStampRecieved,
+       (CASE WHEN o.paid THEN 'Finished' WHEN k = 0 THEN 'Started' ELSE 'Hasn''t Started' END)::public.item_status,
+       NULL,
+       m.prices[p.i],
+       o.timeStampRecieved
+FROM Orders o,
+     (SELECT array_agg(itemName ORDER BY itemName) AS items,
+             array_agg(price ORDER BY itemName) AS prices FROM Menu) m,
+     LATERAL generate_series(0, o.orderid % 4) k,
+     LATERAL (SELECT 1 + (o.orderid * 7 + k) % array_length(m.items, 1) AS i) p;
+
+-- the scratch tables have no triggers, so the totals are summed here
+UPDATE Orders o SET total = s.total
+FROM (SELECT orderid, sum(price) AS total
+      FROM ItemStatus
+      GROUP BY orderid) s
+WHERE s.orderid = o.orderid;
+
+VACUUM ANALYZE Orders;
+VACUUM ANALYZE ItemStatus;
+VACUUM ANALYZE Menu;
+VACUUM ANALYZE UserFavorites;
+
+SELECT count(*) AS orders FROM Orders;
+SELECT count(*) AS items FROM ItemStatus;
+
+-- a customer with an average history and a recent order to look up
+SELECT login AS report_login FROM Orders GROUP BY login ORDER BY count(*) DESC OFFSET 100 LIMIT 1 \gset
+SELECT max(orderid) AS report_orderid FROM Orders \gset
+SELECT COALESCE(max(itemName), '') AS report_favorite FROM UserFavorites \gset
+
+\echo '================ BEFORE create_indexes.sql ================'
+\ir explain_queries.sql
+
+\echo '================ AFTER create_indexes.sql ================'
+\ir create_indexes.sql
+\ir explain_queries.sql
+
+SELECT relname, pg_size_pretty(pg_relation_size(oid)) AS size
+FROM pg_class
+WHERE relnamespace = 'index_report'::regnamespace AND relkind IN ('r', 'i')
+ORDER BY relname;
+
+RESET search_path;
@@ -0,0 +1,32 @@
+-- The indexed Cafe queries, run by explain_indexes.sql before and after
+-- create_indexes.sql. Expects :report_login, :report_orderid and
+-- :report_favorite.
+
+\echo '--- ViewOrderHistory'
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT orderid, timeStampRecieved, total, paid FROM Orders WHERE login = :'report_login' ORDER BY orderid DESC LIMIT 11;
+
+\echo '--- ViewOrderHistory (older page)'
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT orderid, timeStampRecieved, total, paid FROM Orders
+WHERE login = :'report_login' AND orderid < :report_orderid / 2 ORDER BY orderid DESC LIMIT 11;
+
+\echo '--- ViewCurrentOrder'
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT orderid, timeStampRecieved FROM Orders WHERE paid=false AND timeStampRecieved>=NOW()-'1 day'::INTERVAL;
+
+\echo '--- UpdateOrder (modifiable items)'
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT itemName, comments FROM ItemStatus WHERE orderid = :report_orderid AND status = 'Hasn''t Started';
+
+\echo '--- ViewOrderStatus'
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT itemName, status FROM ItemStatus WHERE orderid = :report_orderid;
+
+\echo '--- Favorites.customersOf'
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT login FROM UserFavorites WHERE itemName = :'report_favorite' ORDER BY login;
+
+\echo '--- BrowseMenuType'
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT itemName, type, price, description FROM Menu WHERE type = 'Drinks';
@@ -1,17 +1,20 @@
-COPY MENU
-FROM '/extra/rlui001/cs166/mydb/data/menu.csv'
-WITH DELIMITER ';';
+-- Client-side load of the files in project/data; run from that directory
+-- (scripts/create_db.sh does). java/src/cafe/BulkLoader.java loads the same
+-- files in parallel and is much faster for large datasets.
+\copy Menu FROM 'menu.csv' WITH DELIMITER ';'
+\copy Users FROM 'users.csv' WITH DELIMITER ';'
+-- weekly partitions for the last year; older orders need a wider range
+SELECT ensure_partitions(LOCALTIMESTAMP - interval '1 year', LOCALTIMESTAMP + interval '4 weeks');
+\copy Orders FROM 'orders.csv' WITH DELIMITER ';'
 
-COPY USERS
-FROM '/extra/rlui001/cs166/mydb/data/users.csv'
-WITH DELIMITER ';';
+-- orders.csv already has the totals; the price of each item is still
+-- captured by itemstatus_price
+ALTER TABLE ItemStatus DISABLE TRIGGER itemstatus_total_insert;
+\copy ItemStatus (orderid, itemName, lastUpdated, status, comments, orderReceived) FROM 'itemStatus.csv' WITH DELIMITER ';'
+ALTER TABLE ItemStatus ENABLE TRIGGER itemstatus_total_insert;
 
-COPY ORDERS
-FROM '/extra/rlui001/cs166/mydb/data/orders.csv'
-WITH DELIMITER ';';
-ALTER SEQUENCE orders_orderid_seq RESTART 87257;
-
-COPY ITEMSTATUS
-FROM '/extra/rlui001/cs166/mydb/data/itemStatus.csv'
-WITH DELIMITER ';';
+-- favItems lists become UserFavorites rows
+SELECT migrate_favitems() AS favorites_moved;
 
+-- continue the orderid sequence after the loaded orders
+SELECT setval(pg_get_serial_sequence('orders', 'orderid'), COALESCE(max(orderid), 0) + 1, false) FROM Orders;
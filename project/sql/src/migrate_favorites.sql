@@ -0,0 +1,48 @@
+-- Moves the comma-separated Users.favItems lists into UserFavorites, one
+-- row per (login, itemName). Entries are matched to menu items ignoring
+-- case and surrounding blanks; entries that match no item are reported and
+-- dropped. favItems is cleared once it has been moved, so running this
+-- again (e.g. after reloading users.csv) only moves the new lists.
+--
+-- On a database still using char(n) columns, run
+-- java/src/cafe/SchemaMigrator.java first; it does not carry UserFavorites.
+
+CREATE TABLE IF NOT EXISTS UserFavorites(
+	login varchar(50) NOT NULL,
+	itemName varchar(50) NOT NULL,
+	PRIMARY KEY(login, itemName),
+	FOREIGN KEY(login) REFERENCES Users(login) ON DELETE CASCADE ON UPDATE CASCADE,
+	FOREIGN KEY(itemName) REFERENCES Menu(itemName) ON DELETE CASCADE ON UPDATE CASCADE);
+
+-- "which customers favorite X"
+CREATE INDEX IF NOT EXISTS userfavorites_item_login_idx
+	ON UserFavorites (itemName, login);
+
+CREATE OR REPLACE FUNCTION migrate_favitems() RETURNS bigint AS $$
+DECLARE
+	moved bigint;
+	unmatched text;
+BEGIN
+	INSERT INTO UserFavorites (login, itemName)
+	SELECT DISTINCT U.login, M.itemName
+	FROM Users U
+	CROSS JOIN LATERAL unnest(string_to_array(U.favItems, ',')) AS F(item)
+	JOIN Menu M ON lower(M.itemName) = lower(trim(F.item))
+	WHERE U.favItems IS NOT NULL
+	ON CONFLICT DO NOTHING;
+	GET DIAGNOSTICS moved = ROW_COUNT;
+
+	SELECT string_agg(DISTINCT trim(F.item), ', ') INTO unmatched
+	FROM Users U
+	CROSS JOIN LATERAL unnest(string_to_array(U.favItems, ',')) AS F(item)
+	WHERE U.favItems IS NOT NULL AND trim(F.item) <> ''
+	  AND NOT EXISTS (SELECT 1 FROM Menu M WHERE lower(M.itemName) = lower(trim(F.item)));
+	IF unmatched IS NOT NULL THEN
+		RAISE NOTICE 'favorites not on the menu, dropped: %', unmatched;
+	END IF;
+
+	UPDATE Users SET favItems = NULL WHERE favItems IS NOT NULL;
+	RETURN moved;
+END $$ LANGUAGE plpgsql;
+
+SELECT migrate_favitems() AS favorites_moved;